@@ -0,0 +1,121 @@
+package spw4.game2048;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public final class BenchmarkMain {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private BenchmarkMain() {
+    }
+
+    // runs the benchmarks with the GC profiler; --save writes a baseline, --check fails on regressions against one
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = ".*Benchmark.*";
+        Path save = null;
+        Path check = null;
+        double tolerance = 0.25;
+        boolean quick = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--include" -> include = args[++i];
+                case "--save" -> save = Path.of(args[++i]);
+                case "--check" -> check = Path.of(args[++i]);
+                case "--tolerance" -> tolerance = Double.parseDouble(args[++i]);
+                case "--quick" -> quick = true;
+                default -> throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class);
+        if (quick) {
+            options.warmupIterations(1).warmupTime(TimeValue.milliseconds(500))
+                    .measurementIterations(2).measurementTime(TimeValue.milliseconds(500));
+        }
+        Map<String, Double> results = scores(new Runner(options.build()).run());
+
+        if (save != null) {
+            save(results, save);
+            System.out.printf("baseline with %d results written to %s%n", results.size(), save);
+        }
+        if (check != null && !check(results, load(check), tolerance)) {
+            System.exit(1);
+        }
+    }
+
+    // one entry for the time per operation and one for the bytes allocated per operation of every run
+    static Map<String, Double> scores(Collection<RunResult> runs) {
+        Map<String, Double> scores = new TreeMap<>();
+        for (RunResult run : runs) {
+            String key = run.getParams().getBenchmark();
+            for (String param : run.getParams().getParamsKeys()) {
+                key += "[" + param + "=" + run.getParams().getParam(param) + "]";
+            }
+            scores.put(key, run.getPrimaryResult().getScore());
+
+            Result<?> allocation = run.getSecondaryResults().get(ALLOCATION);
+            if (allocation != null) {
+                scores.put(key + ":" + ALLOCATION, allocation.getScore());
+            }
+        }
+        return scores;
+    }
+
+    // lower is better for every score, so a result is a regression if it exceeds the baseline by more than the tolerance;
+    // allocation also gets an absolute slack of one byte so zero-allocation baselines do not flag rounding noise
+    static boolean check(Map<String, Double> results, Map<String, Double> baseline, double tolerance) {
+        boolean passed = true;
+        for (Map.Entry<String, Double> entry : results.entrySet()) {
+            Double expected = baseline.get(entry.getKey());
+            if (expected == null) {
+                System.out.printf("NEW        %s: %.3f%n", entry.getKey(), entry.getValue());
+                continue;
+            }
+
+            double limit = expected * (1 + tolerance) + (entry.getKey().endsWith(ALLOCATION) ? 1 : 0);
+            boolean regressed = entry.getValue() > limit;
+            System.out.printf("%-10s %s: %.3f (baseline %.3f)%n",
+                    regressed ? "REGRESSION" : "OK", entry.getKey(), entry.getValue(), expected);
+            passed &= !regressed;
+        }
+        return passed;
+    }
+
+    // one "benchmark<TAB>score" line per result, sorted so baselines diff cleanly
+    private static void save(Map<String, Double> results, Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        results.forEach((key, value) -> lines.add(key + "\t" + value));
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Double> load(Path path) throws IOException {
+        Map<String, Double> baseline = new TreeMap<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#")) continue;
+
+            int tab = line.lastIndexOf('\t');
+            baseline.put(line.substring(0, tab), Double.parseDouble(line.substring(tab + 1)));
+        }
+        return baseline;
+    }
+}
@@ -0,0 +1,196 @@
+package spw4.game2048;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Load test of /Game in an embedded Jetty, once with requests on the container threads and once handed
+// to the request executor. Both modes get the same number of platform threads: the sync container
+// pool has all of them, the async one only --container-threads and the request pool the rest. On a
+// runtime with virtual threads the async requests run on those instead, which the threads column
+// shows. Every client keeps one request in flight, a share of them hints, and the run reports
+// throughput and latency percentiles of the answered requests and the count of error statuses, e.g.
+// java -cp target/benchmarks.jar spw4.game2048.LoadTestMain --clients 64 --hints 10
+public final class LoadTestMain {
+
+    private static final Pattern GAME_ID = Pattern.compile("data-game=\"([0-9a-f-]+)\"");
+    private static final String[] DIRECTIONS = {"up", "left", "down", "right"};
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = 64;
+        int seconds = 10;
+        int hintPercent = 10;
+        int threads = 32;
+        int containerThreads = 8;
+        int hintDepth = ExpectimaxSolver.DEFAULT_MAX_DEPTH;
+        int hintMillis = (int) ExpectimaxSolver.DEFAULT_TIME_BUDGET.toMillis();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--clients" -> clients = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Integer.parseInt(args[++i]);
+                case "--hints" -> hintPercent = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--container-threads" -> containerThreads = Integer.parseInt(args[++i]);
+                case "--hint-depth" -> hintDepth = Integer.parseInt(args[++i]);
+                case "--hint-millis" -> hintMillis = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        if (containerThreads >= threads) {
+            throw new IllegalArgumentException("container threads must leave request threads");
+        }
+
+        System.out.printf("%d clients, %d%% hints, %d threads per mode, %d s per run%n",
+                clients, hintPercent, threads, seconds);
+        System.out.printf("%-6s %-12s %10s %10s %10s %10s %10s %10s%n",
+                "mode", "threads", "req/s", "errors", "move p50", "move p99", "hint p50", "hint p99");
+        boolean virtual = hasVirtualThreads();
+        for (boolean async : new boolean[]{false, true}) {
+            Server server = async
+                    ? start(true, containerThreads, threads - containerThreads, hintDepth, hintMillis)
+                    : start(false, threads, 0, hintDepth, hintMillis);
+            String threadCounts = !async ? Integer.toString(threads)
+                    : containerThreads + "+" + (virtual ? "virtual" : Integer.toString(threads - containerThreads));
+            try {
+                int port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+                URI game = URI.create("http://localhost:" + port + "/Game");
+                // a short warm-up so both modes run compiled code
+                run(game, clients, 2, hintPercent);
+                Result result = run(game, clients, seconds, hintPercent);
+                long[] moves = result.moves.quantiles(0.5, 0.99);
+                long[] hints = result.hints.quantiles(0.5, 0.99);
+                System.out.printf("%-6s %-12s %10.0f %10d %8.2fms %8.2fms %8.2fms %8.2fms%n",
+                        async ? "async" : "sync", threadCounts, result.requests.sum() / (double) seconds,
+                        result.errors.sum(), moves[0] / 1e6, moves[1] / 1e6, hints[0] / 1e6, hints[1] / 1e6);
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    // the same check GameContextListener.newRequestExecutor makes
+    private static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Server start(boolean async, int containerThreads, int requestThreads, int hintDepth,
+                                int hintMillis) throws Exception {
+        Server server = new Server(new QueuedThreadPool(containerThreads, containerThreads));
+        server.addConnector(new ServerConnector(server, 1, 1));
+
+        ServletContextHandler context = new ServletContextHandler();
+        context.setInitParameter("game2048.asyncRequests", Boolean.toString(async));
+        context.setInitParameter("game2048.requestThreads", Integer.toString(Math.max(requestThreads, 1)));
+        context.setInitParameter("game2048.hintDepth", Integer.toString(hintDepth));
+        context.setInitParameter("game2048.hintTimeMillis", Integer.toString(hintMillis));
+        context.addEventListener(new GameContextListener());
+        ServletHolder holder = new ServletHolder(new GameServlet());
+        holder.setAsyncSupported(true);
+        context.addServlet(holder, "/Game");
+        server.setHandler(context);
+        server.start();
+        return server;
+    }
+
+    private static Result run(URI game, int clients, int seconds, int hintPercent) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        Result result = new Result();
+        long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    play(client, game, end, hintPercent, result);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, "load-client-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return result;
+    }
+
+    // keeps one request in flight until the end, starting a new game once moves stop changing the board;
+    // an error status is counted apart from the answered requests and also starts a new game
+    private static void play(HttpClient client, URI game, long end, int hintPercent, Result result)
+            throws Exception {
+        String id = null;
+        int unchanged = 0;
+        for (int i = 0; System.nanoTime() < end; i++) {
+            if (id == null || unchanged >= DIRECTIONS.length) {
+                HttpResponse<String> page = send(client, game, "?action=new");
+                if (!isSuccess(page)) {
+                    result.errors.increment();
+                    continue;
+                }
+                Matcher matcher = GAME_ID.matcher(page.body());
+                if (!matcher.find()) {
+                    throw new IllegalStateException("no game in " + page.body());
+                }
+                id = matcher.group(1);
+                unchanged = 0;
+                result.requests.increment();
+                continue;
+            }
+
+            boolean hint = ThreadLocalRandom.current().nextInt(100) < hintPercent;
+            String action = hint ? "hint" : DIRECTIONS[i % DIRECTIONS.length];
+            long start = System.nanoTime();
+            HttpResponse<String> page = send(client, game, "?action=" + action + "&id=" + id);
+            if (!isSuccess(page)) {
+                result.errors.increment();
+                id = null;
+                continue;
+            }
+            (hint ? result.hints : result.moves).record(System.nanoTime() - start);
+            result.requests.increment();
+            unchanged = page.statusCode() == 204 ? unchanged + 1 : 0;
+        }
+    }
+
+    private static boolean isSuccess(HttpResponse<String> response) {
+        return response.statusCode() / 100 == 2;
+    }
+
+    private static HttpResponse<String> send(HttpClient client, URI game, String query) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(game + query)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static final class Result {
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LatencyHistogram moves = new LatencyHistogram();
+        final LatencyHistogram hints = new LatencyHistogram();
+    }
+}
@@ -0,0 +1,93 @@
+package spw4.game2048;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// What the instrumentation adds to a request: looking up the game, moving and rendering the page,
+// once plain and once through Metrics. The move is undone again, so every invocation sees the same board.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+
+    private static final int[][] BOARD = {
+            {2, 0, 4, 0},
+            {0, 8, 0, 2},
+            {4, 2, 16, 0},
+            {0, 4, 0, 8}};
+
+    private final GameStore games = new CompactGameStore();
+    private final Metrics metrics = new Metrics();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+    private UUID id;
+    private Game game;
+
+    @Setup
+    public void setup() {
+        id = games.add(new BitboardGame(BOARD, Game.DEFAULT_WIN_TILE, 1, 0, 0, new SplitMixRandom(1234)));
+        game = new BitboardGame(BOARD, Game.DEFAULT_WIN_TILE, 1, 0, 0, new SplitMixRandom(1234));
+    }
+
+    @Benchmark
+    public boolean move() {
+        boolean changed = MoveResult.changed(game.move(Direction.left));
+        game.undo();
+        return changed;
+    }
+
+    @Benchmark
+    public boolean instrumentedMove() {
+        boolean changed = MoveResult.changed(metrics.move(game, Direction.left));
+        game.undo();
+        return changed;
+    }
+
+    @Benchmark
+    public int request() {
+        out.reset();
+        return games.apply(id, game -> play(game, false));
+    }
+
+    @Benchmark
+    public int instrumentedRequest() {
+        out.reset();
+        GameRequestEvent event = new GameRequestEvent();
+        event.begin();
+        int size = metrics.apply(games, id, game -> play(game, true));
+        event.commit();
+        return size;
+    }
+
+    private int play(Game game, boolean instrumented) {
+        try {
+            if (instrumented) {
+                metrics.move(game, Direction.left);
+                metrics.render(id, game, null, out);
+            } else {
+                game.move(Direction.left);
+                GameRenderer.getInstance().render(id, game, out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        game.undo();
+        return out.size();
+    }
+}
@@ -0,0 +1,66 @@
+package spw4.game2048;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveBenchmark {
+
+    // every row and column has a gap, so each direction changes the board
+    private static final int[][] BOARD = {
+            {2, 0, 4, 0},
+            {0, 8, 0, 2},
+            {4, 2, 16, 0},
+            {0, 4, 0, 8}};
+
+    @Param({"up", "down", "left", "right"})
+    private Direction direction;
+
+    private final SplitMixRandom random = new SplitMixRandom(1234);
+    private long board;
+
+    @Setup
+    public void setup() {
+        board = new BitboardGame(BOARD, random).getBoard();
+    }
+
+    // includes copying the 4x4 board into a fresh game, since a repeated move would be a no-op
+    @Benchmark
+    public long gameImpl() {
+        return new GameImpl(copy(BOARD), random).move(direction);
+    }
+
+    @Benchmark
+    public long bitboardGame() {
+        return new BitboardGame(BOARD, random).move(direction);
+    }
+
+    @Benchmark
+    public long bitboard() {
+        return Bitboard.move(board, direction);
+    }
+
+    private static int[][] copy(int[][] board) {
+        int[][] result = new int[board.length][];
+        for (int x = 0; x < board.length; x++) {
+            result[x] = board[x].clone();
+        }
+        return result;
+    }
+}
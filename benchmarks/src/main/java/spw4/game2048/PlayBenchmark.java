@@ -0,0 +1,52 @@
+package spw4.game2048;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayBenchmark {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    @Param({"GameImpl", "BitboardGame"})
+    private String engine;
+
+    private long seed;
+    private Game game;
+    private int turn;
+
+    @Setup
+    public void setup() {
+        restart();
+    }
+
+    // cycles through all directions, so no-op moves are part of the mix as in real play
+    @Benchmark
+    public long move() {
+        if (game.isOver()) {
+            restart();
+        }
+        return game.move(DIRECTIONS[turn++ & 3]);
+    }
+
+    private void restart() {
+        game = "GameImpl".equals(engine) ? new GameImpl(seed++) : new BitboardGame(seed++);
+        game.initialize();
+    }
+}
@@ -0,0 +1,68 @@
+package spw4.game2048;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RegistryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Sessions {
+
+        @Param({"1000", "100000"})
+        private int games;
+
+        @Param({"registry", "compact"})
+        private String store;
+
+        private GameStore registry;
+        private UUID[] ids;
+
+        @Setup
+        public void setup() {
+            registry = "compact".equals(store)
+                    ? new CompactGameStore(games, GameRegistry.DEFAULT_TIME_TO_LIVE, GameRegistry.DEFAULT_IDLE_TIMEOUT)
+                    : new GameRegistry(games, GameRegistry.DEFAULT_TIME_TO_LIVE, GameRegistry.DEFAULT_IDLE_TIMEOUT);
+            ids = new UUID[games];
+            for (int i = 0; i < games; i++) {
+                Game game = new BitboardGame(i);
+                game.initialize();
+                ids[i] = registry.add(game);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final SplitMixRandom random = new SplitMixRandom();
+    }
+
+    @Benchmark
+    public int lookup(Sessions sessions, Cursor cursor) {
+        return sessions.registry.apply(sessions.ids[cursor.random.nextInt(sessions.games)], Game::getScore);
+    }
+
+    @Benchmark
+    public long move(Sessions sessions, Cursor cursor) {
+        Direction direction = Direction.values()[cursor.random.nextInt(4)];
+        return sessions.registry.apply(sessions.ids[cursor.random.nextInt(sessions.games)], game -> game.move(direction));
+    }
+}
@@ -0,0 +1,57 @@
+package spw4.game2048;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    private final UUID id = new UUID(0x0123456789ABCDEFL, 0xFEDCBA9876543210L);
+    private final GameRenderer renderer = GameRenderer.getInstance();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+    private Game game;
+
+    @Setup
+    public void setup() {
+        game = new BitboardGame(1234);
+        game.initialize();
+        for (int i = 0; i < 50; i++) {
+            game.move(Direction.values()[i & 3]);
+        }
+    }
+
+    @Benchmark
+    public int html() throws IOException {
+        out.reset();
+        renderer.render(id, game, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public byte[] json() {
+        return GameStateEncoder.toJson(id, game);
+    }
+
+    @Benchmark
+    public byte[] binary() {
+        return GameStateEncoder.toBinary(id, game);
+    }
+}
@@ -0,0 +1,62 @@
+package spw4.game2048;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpawnBenchmark {
+
+    @Param({"0", "8", "14"})
+    private int filled;
+
+    private final SplitMixRandom random = new SplitMixRandom(1234);
+    private int[][] gameBoard;
+    private long board;
+
+    @Setup
+    public void setup() {
+        gameBoard = new int[4][4];
+        for (int cell = 0; cell < filled; cell++) {
+            // alternating values in every direction, so nothing on the board can merge
+            gameBoard[cell % 4][cell / 4] = (cell % 4 + cell / 4) % 2 == 0 ? 2 : 4;
+        }
+        board = new BitboardGame(gameBoard, random).getBoard();
+    }
+
+    // initialize spawns two tiles; the game is rebuilt from a copy so every call sees the same fill level
+    @Benchmark
+    public int gameImplInitialize() {
+        GameImpl game = new GameImpl(copy(gameBoard), random);
+        game.initialize();
+        return game.getTilesCount();
+    }
+
+    @Benchmark
+    public long bitboardSpawn() {
+        return Bitboard.spawn(board, random.nextInt(Bitboard.countEmpty(board) * 10));
+    }
+
+    private static int[][] copy(int[][] board) {
+        int[][] result = new int[board.length][];
+        for (int x = 0; x < board.length; x++) {
+            result[x] = board[x].clone();
+        }
+        return result;
+    }
+}
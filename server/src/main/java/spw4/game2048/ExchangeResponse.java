@@ -0,0 +1,32 @@
+package spw4.game2048;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+// GameActions.Response over an exchange of the JDK HTTP server.
+final class ExchangeResponse implements GameActions.Response {
+
+    private static final System.Logger LOG = System.getLogger(ExchangeResponse.class.getName());
+
+    private final HttpExchange exchange;
+
+    ExchangeResponse(HttpExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    @Override
+    public void send(int status, String contentType, byte[] body) throws IOException {
+        StandaloneServer.send(exchange, status, contentType, body);
+    }
+
+    @Override
+    public void sendNoContent() throws IOException {
+        StandaloneServer.sendNoContent(exchange);
+    }
+
+    @Override
+    public void failed(RuntimeException e) {
+        LOG.log(System.Logger.Level.ERROR, "handling " + exchange.getRequestURI() + " failed", e);
+    }
+}
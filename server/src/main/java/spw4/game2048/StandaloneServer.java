@@ -0,0 +1,169 @@
+package spw4.game2048;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Serves /Game, /api/game, /metrics and the static files of the web application from the JDK's
+// HTTP server instead of a servlet container. Requests run on a fixed pool of worker threads, e.g.
+// java -jar server/target/game2048-server.jar --port 8080 --threads 16
+// There is no WebSocket support, so the pages fall back to plain links, and no move log.
+public final class StandaloneServer implements AutoCloseable {
+
+    static final int DEFAULT_PORT = 8080;
+    static final int DEFAULT_THREADS = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService evictor;
+
+    private StandaloneServer(HttpServer server, ExecutorService workers, ScheduledExecutorService evictor) {
+        this.server = server;
+        this.workers = workers;
+        this.evictor = evictor;
+    }
+
+    // port 0 picks a free port, see getPort
+    public static StandaloneServer start(InetSocketAddress address, int backlog, int threads, GameStore games,
+                                         ExpectimaxSolver solver, Tablebase tablebase, int historyDepth)
+            throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("thread count is invalid");
+        }
+        Metrics metrics = new Metrics();
+        HttpServer server = HttpServer.create(address, backlog);
+        // the pages of GameServlet and the API of GameApiServlet, without a move log
+        GameActions actions = new GameActions(games, null, solver, tablebase, metrics, historyDepth);
+        server.createContext("/Game",
+                exchange -> actions.page(parameters(exchange)::get, new ExchangeResponse(exchange)));
+        server.createContext("/api/game",
+                exchange -> actions.api(parameters(exchange)::get, new ExchangeResponse(exchange)));
+        server.createContext("/metrics", exchange -> {
+            StringWriter text = new StringWriter();
+            metrics.write(new PrintWriter(text), games);
+            send(exchange, 200, "text/plain;version=0.0.4;charset=UTF-8",
+                    text.toString().getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/", new StaticHandler());
+
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "game2048-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(workers);
+
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game2048-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(games::evictExpired, 1, 1, TimeUnit.MINUTES);
+
+        server.start();
+        return new StandaloneServer(server, workers, evictor);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdownNow();
+        evictor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        int port = DEFAULT_PORT;
+        int backlog = 0;
+        int threads = DEFAULT_THREADS;
+        int maxGames = GameRegistry.DEFAULT_MAX_SIZE;
+        int historyDepth = History.DEFAULT_DEPTH;
+        int hintDepth = ExpectimaxSolver.DEFAULT_MAX_DEPTH;
+        int hintMillis = (int) ExpectimaxSolver.DEFAULT_TIME_BUDGET.toMillis();
+        Tablebase tablebase = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--backlog" -> backlog = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--max-games" -> maxGames = Integer.parseInt(args[++i]);
+                case "--history-depth" -> historyDepth = Integer.parseInt(args[++i]);
+                case "--hint-depth" -> hintDepth = Integer.parseInt(args[++i]);
+                case "--hint-millis" -> hintMillis = Integer.parseInt(args[++i]);
+                case "--tablebase" -> tablebase = Tablebase.open(Path.of(args[++i]));
+                default -> throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        StandaloneServer server = start(new InetSocketAddress(port), backlog, threads,
+                new CompactGameStore(maxGames, GameRegistry.DEFAULT_TIME_TO_LIVE, GameRegistry.DEFAULT_IDLE_TIMEOUT),
+                new ExpectimaxSolver(hintDepth, Duration.ofMillis(hintMillis)), tablebase, historyDepth);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "game2048-shutdown"));
+        System.out.printf("move table of %d KB built in %.1f ms%n", MoveTable.BYTES / 1024, MoveTable.BUILD_NANOS / 1e6);
+        System.out.printf("serving http://localhost:%d/ with %d workers, started in %d ms (%d ms after JVM start)%n",
+                server.getPort(), threads, (System.nanoTime() - start) / 1_000_000,
+                ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    // the query parameters, and for a form post also the ones in the body, like ServletRequest.getParameter
+    static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), parameters);
+        String type = exchange.getRequestHeaders().getFirst("Content-Type");
+        if ("POST".equals(exchange.getRequestMethod())
+                && type != null && type.startsWith("application/x-www-form-urlencoded")) {
+            try (InputStream body = exchange.getRequestBody()) {
+                parse(new String(body.readAllBytes(), StandardCharsets.UTF_8), parameters);
+            }
+        }
+        return parameters;
+    }
+
+    private static void parse(String query, Map<String, String> parameters) {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            // the first value wins, as with getParameter
+            parameters.putIfAbsent(name, value);
+        }
+    }
+
+    static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    static void sendNoContent(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(204, -1);
+        exchange.close();
+    }
+}
@@ -0,0 +1,44 @@
+package spw4.game2048;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+// The static files of src/main/webapp, packaged under /webapp on the class path; / serves the start page.
+final class StaticHandler implements HttpHandler {
+
+    private static final String ROOT = "/webapp";
+    private static final String INDEX = "/index.jsp";
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jsp", "text/html;charset=UTF-8",
+            "css", "text/css;charset=UTF-8",
+            "js", "text/javascript;charset=UTF-8",
+            "map", "application/json;charset=UTF-8",
+            "woff", "font/woff",
+            "woff2", "font/woff2");
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals("/")) {
+            path = INDEX;
+        }
+        String contentType = CONTENT_TYPES.get(path.substring(path.lastIndexOf('.') + 1));
+
+        InputStream resource = contentType == null || path.contains("..")
+                ? null
+                : StaticHandler.class.getResourceAsStream(ROOT + path);
+        if (resource == null) {
+            StandaloneServer.send(exchange, 404, "text/plain;charset=UTF-8",
+                    "not found\n".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        try (resource) {
+            StandaloneServer.send(exchange, 200, contentType, resource.readAllBytes());
+        }
+    }
+}
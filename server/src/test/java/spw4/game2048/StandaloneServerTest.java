@@ -0,0 +1,121 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class StandaloneServerTest {
+
+    private static final Pattern GAME_ID = Pattern.compile("data-game=\"([0-9a-f-]+)\"");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final GameStore games = new CompactGameStore();
+    private StandaloneServer sut;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        sut = StandaloneServer.start(new InetSocketAddress("localhost", 0), 0, 2, games,
+                new ExpectimaxSolver(), null, 4);
+    }
+
+    @AfterEach
+    void afterEach() {
+        sut.close();
+    }
+
+    @DisplayName("StandaloneServer serves a new game page and plays it")
+    @Test
+    void servesGamePages() throws Exception {
+        HttpResponse<String> page = get("/Game?action=new");
+        Matcher matcher = GAME_ID.matcher(page.body());
+
+        assertThat(page.statusCode()).isEqualTo(200);
+        assertThat(page.headers().firstValue("Content-Type")).hasValue("text/html;charset=UTF-8");
+        assertThat(matcher.find()).isTrue();
+        assertThat(games.size()).isEqualTo(1);
+
+        String id = matcher.group(1);
+        int played = 0;
+        for (String direction : new String[]{"up", "down", "left", "right"}) {
+            int status = get("/Game?id=" + id + "&action=" + direction).statusCode();
+            assertThat(status).isIn(200, 204);
+            played += status == 200 ? 1 : 0;
+        }
+        assertThat(played).isPositive();
+        assertThat(get("/Game?id=" + id + "&action=hint").body()).contains("Hint: ");
+    }
+
+    @DisplayName("StandaloneServer with a tablebase hints moves on its board size")
+    @Test
+    void hintsFromTablebase(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("tablebase.bin");
+        new TablebaseGenerator(3, 16, ForkJoinPool.commonPool()).generate(file);
+        sut.close();
+        sut = StandaloneServer.start(new InetSocketAddress("localhost", 0), 0, 2, games,
+                new ExpectimaxSolver(), Tablebase.open(file), 4);
+
+        Matcher small = GAME_ID.matcher(get("/Game?action=new&size=3&win=16").body());
+        Matcher large = GAME_ID.matcher(get("/Game?action=new&size=5&win=16").body());
+
+        assertThat(small.find() && large.find()).isTrue();
+        assertThat(get("/Game?id=" + small.group(1) + "&action=hint").body()).contains("Hint: ");
+        assertThat(get("/Game?id=" + large.group(1) + "&action=hint").body()).doesNotContain("Hint: ");
+    }
+
+    @DisplayName("StandaloneServer answers the API in JSON")
+    @Test
+    void servesApi() throws Exception {
+        HttpResponse<String> created = get("/api/game?action=new&size=5");
+        String id = created.body().replaceAll("(?s).*\"id\":\"([0-9a-f-]+)\".*", "$1");
+
+        HttpResponse<String> state = get("/api/game?id=" + id + "&moves=lrud");
+
+        assertThat(created.statusCode()).isEqualTo(200);
+        assertThat(created.body()).containsPattern("\"board\":\\[\\[\\d+(,\\d+){4}]");
+        assertThat(state.statusCode()).isEqualTo(200);
+        assertThat(state.headers().firstValue("Content-Type")).hasValue(GameStateEncoder.JSON_CONTENT_TYPE);
+        assertThat(state.body()).contains("\"id\":\"" + id + "\"");
+    }
+
+    @DisplayName("StandaloneServer for unknown games and malformed requests returns 410 and 400")
+    @Test
+    void rejectsInvalidRequests() throws Exception {
+        assertThat(get("/Game?id=00000000-0000-0000-0000-000000000000").statusCode()).isEqualTo(410);
+        assertThat(get("/Game?id=nonsense").statusCode()).isEqualTo(400);
+        assertThat(get("/Game").statusCode()).isEqualTo(400);
+        assertThat(get("/api/game?id=00000000-0000-0000-0000-000000000000").statusCode()).isEqualTo(410);
+    }
+
+    @DisplayName("StandaloneServer serves the static files and metrics")
+    @Test
+    void servesStaticFilesAndMetrics() throws Exception {
+        get("/Game?action=new");
+
+        assertThat(get("/").body()).contains("Game?action=new");
+        assertThat(get("/js/live.js").headers().firstValue("Content-Type"))
+                .hasValue("text/javascript;charset=UTF-8");
+        assertThat(get("/css/../WEB-INF/web.xml").statusCode()).isEqualTo(404);
+        assertThat(get("/missing.css").statusCode()).isEqualTo(404);
+        assertThat(get("/metrics").body()).contains("game2048_games_created_total 1\n");
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + sut.getPort() + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,132 @@
+package spw4.game2048;
+
+final class Bitboard {
+
+    static final int SIZE = 4;
+    static final int MAX_EXPONENT = 15;
+
+    private Bitboard() {
+    }
+
+    static long move(long board, Direction direction) {
+        int[] table = MoveTable.of(direction);
+        return switch (direction) {
+            case left, right -> moveRows(board, table);
+            case up, down -> transpose(moveRows(transpose(board), table));
+        };
+    }
+
+    static int score(long board, Direction direction) {
+        int[] table = MoveTable.of(direction);
+        return switch (direction) {
+            case left, right -> scoreRows(board, table);
+            case up, down -> scoreRows(transpose(board), table);
+        };
+    }
+
+    private static long moveRows(long board, int[] table) {
+        return (long) MoveTable.row(table[(int) board & 0xFFFF])
+                | (long) MoveTable.row(table[(int) (board >>> 16) & 0xFFFF]) << 16
+                | (long) MoveTable.row(table[(int) (board >>> 32) & 0xFFFF]) << 32
+                | (long) MoveTable.row(table[(int) (board >>> 48) & 0xFFFF]) << 48;
+    }
+
+    private static int scoreRows(long board, int[] table) {
+        return MoveTable.score(table[(int) board & 0xFFFF])
+                + MoveTable.score(table[(int) (board >>> 16) & 0xFFFF])
+                + MoveTable.score(table[(int) (board >>> 32) & 0xFFFF])
+                + MoveTable.score(table[(int) (board >>> 48) & 0xFFFF]);
+    }
+
+    static long transpose(long board) {
+        long a1 = board & 0xF0F00F0FF0F00F0FL;
+        long a2 = board & 0x0000F0F00000F0F0L;
+        long a3 = board & 0x0F0F00000F0F0000L;
+        long a = a1 | (a2 << 12) | (a3 >>> 12);
+        long b1 = a & 0xFF00FF0000FF00FFL;
+        long b2 = a & 0x00FF00FF00000000L;
+        long b3 = a & 0x00000000FF00FF00L;
+        return b1 | (b2 >>> 24) | (b3 << 24);
+    }
+
+    static int get(long board, int x, int y) {
+        return (int) (board >>> shift(x, y)) & 0xF;
+    }
+
+    static long set(long board, int x, int y, int exponent) {
+        return (board & ~(0xFL << shift(x, y))) | ((long) exponent << shift(x, y));
+    }
+
+    private static int shift(int x, int y) {
+        return 4 * (SIZE * y + x);
+    }
+
+    static long of(Game game) {
+        long board = 0;
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                board = set(board, x, y, toExponent(game.getValueAt(x, y)));
+            }
+        }
+        return board;
+    }
+
+    static int countEmpty(long board) {
+        return Long.bitCount(emptyCells(board));
+    }
+
+    // lowest bit of every empty nibble
+    static long emptyCells(long board) {
+        long occupied = board | (board >>> 1);
+        occupied |= occupied >>> 2;
+        return ~occupied & 0x1111111111111111L;
+    }
+
+    // places the tile chosen by a single draw in [0, 10 * empty cells):
+    // draw / 10 selects the empty cell, draw % 10 == 9 makes it a 4
+    static long spawn(long board, int draw) {
+        long cells = emptyCells(board);
+        for (int i = draw / 10; i > 0; i--) {
+            cells &= cells - 1;
+        }
+        return board | (long) (draw % 10 == 9 ? 2 : 1) << Long.numberOfTrailingZeros(cells);
+    }
+
+    // true if two neighbouring cells hold the same exponent; only meaningful on a full board
+    static boolean hasMerge(long board) {
+        return hasZeroNibble(board ^ (board >>> 4), 0x0FFF0FFF0FFF0FFFL)
+                || hasZeroNibble(board ^ (board >>> 16), 0x0000FFFFFFFFFFFFL);
+    }
+
+    private static boolean hasZeroNibble(long value, long mask) {
+        long nonZero = value | (value >>> 1);
+        nonZero |= nonZero >>> 2;
+        return (~nonZero & mask & 0x1111111111111111L) != 0;
+    }
+
+    static int maxExponent(long board) {
+        int max = 0;
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            max = Math.max(max, (int) (board >>> (4 * i)) & 0xF);
+        }
+        return max;
+    }
+
+    static boolean contains(long board, int exponent) {
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            if (((board >>> (4 * i)) & 0xF) == exponent) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    static int toExponent(int value) {
+        return value == 0 ? 0 : Integer.numberOfTrailingZeros(value);
+    }
+
+    static int toValue(int exponent) {
+        return exponent == 0 ? 0 : 1 << exponent;
+    }
+}
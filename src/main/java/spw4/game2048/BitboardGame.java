@@ -0,0 +1,251 @@
+package spw4.game2048;
+
+public final class BitboardGame implements Game {
+
+    private static final int SIZE = Bitboard.SIZE;
+
+    private final RandomSource random;
+    private final History history;
+    private final int winExponent;
+    private long board;
+    private int maxExponent = 0;
+    private boolean over = false;
+
+    private int moves = 0;
+    private int score = 0;
+
+    public BitboardGame() {
+        this(new SplitMixRandom());
+    }
+
+    public BitboardGame(long seed) {
+        this(new SplitMixRandom(seed));
+    }
+
+    public BitboardGame(RandomSource random) {
+        this(DEFAULT_WIN_TILE, random);
+    }
+
+    public BitboardGame(int winTile, RandomSource random) {
+        this(winTile, 0, random);
+    }
+
+    public BitboardGame(int winTile, int historyDepth, RandomSource random) {
+        this(winTile, History.create(historyDepth, 1), random);
+    }
+
+    private BitboardGame(int winTile, History history, RandomSource random) {
+        if (winTile < 4 || Integer.bitCount(winTile) != 1 || winTile > Bitboard.toValue(Bitboard.MAX_EXPONENT)) {
+            throw new IllegalArgumentException("win tile is invalid");
+        }
+
+        this.random = random;
+        this.history = history;
+        this.winExponent = Bitboard.toExponent(winTile);
+    }
+
+    BitboardGame(int[][] gameBoard, RandomSource random) {
+        this(gameBoard, DEFAULT_WIN_TILE, 0, 0, 0, random);
+    }
+
+    BitboardGame(int[][] gameBoard, int winTile, int historyDepth, int score, int moves, RandomSource random) {
+        this(pack(gameBoard), winTile, score, moves, History.create(historyDepth, 1), random);
+    }
+
+    // the history is shared, so views of a stored game keep stepping through the same one
+    BitboardGame(long board, int winTile, int score, int moves, History history, RandomSource random) {
+        this(winTile, history, random);
+        this.board = board;
+        this.score = score;
+        this.moves = moves;
+        maxExponent = Bitboard.maxExponent(board);
+        updateOver();
+    }
+
+    private static long pack(int[][] gameBoard) {
+        if (gameBoard.length != SIZE) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        long board = 0;
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                board = Bitboard.set(board, x, y, Bitboard.toExponent(gameBoard[x][y]));
+            }
+        }
+        return board;
+    }
+
+    public void initialize() {
+        for (int i = 0; i < 2; i++) {
+            generateNewValue();
+        }
+        updateOver();
+    }
+
+    private void generateNewValue() {
+        int draw = random.nextInt(Bitboard.countEmpty(board) * 10);
+        board = Bitboard.spawn(board, draw);
+        maxExponent = Math.max(maxExponent, draw % 10 == 9 ? 2 : 1);
+    }
+
+    private void updateOver() {
+        over = Bitboard.countEmpty(board) == 0 && !Bitboard.hasMerge(board);
+    }
+
+    // one table lookup per row gives the moved row, its score and whether it changed
+    public long move(Direction direction) {
+        boolean vertical = direction == Direction.up || direction == Direction.down;
+        long rows = vertical ? Bitboard.transpose(board) : board;
+        int[] table = MoveTable.of(direction);
+        int first = table[(int) rows & 0xFFFF];
+        int second = table[(int) (rows >>> 16) & 0xFFFF];
+        int third = table[(int) (rows >>> 32) & 0xFFFF];
+        int fourth = table[(int) (rows >>> 48) & 0xFFFF];
+        // the changed flags are the sign bits, so one test covers all rows
+        if (!MoveTable.changed(first | second | third | fourth)) {
+            return MoveResult.UNCHANGED;
+        }
+        if (history != null && history.isEmpty()) {
+            record();
+        }
+
+        long movedRows = MoveTable.row(first)
+                | (long) MoveTable.row(second) << 16
+                | (long) MoveTable.row(third) << 32
+                | (long) MoveTable.row(fourth) << 48;
+        long moved = vertical ? Bitboard.transpose(movedRows) : movedRows;
+        int gained = MoveTable.score(first) + MoveTable.score(second)
+                + MoveTable.score(third) + MoveTable.score(fourth);
+        // every merge frees exactly one cell
+        int merges = Bitboard.countEmpty(moved) - Bitboard.countEmpty(board);
+        board = moved;
+        score += gained;
+
+        // a move creates at most one new level above the current maximum,
+        // and only if it merged tiles worth at least that much
+        if (gained >= 1 << (maxExponent + 1) && Bitboard.contains(board, maxExponent + 1)) {
+            maxExponent++;
+        }
+
+        if (Bitboard.countEmpty(board) != 0) {
+            generateNewValue();
+        }
+        updateOver();
+        moves++;
+        if (history != null) {
+            record();
+        }
+        return MoveResult.of(merges, gained);
+    }
+
+    private void record() {
+        long[] state = history.state();
+        state[0] = board;
+        state[1] = History.pack(score, moves);
+        history.record();
+    }
+
+    public boolean undo() {
+        if (history == null || !history.undo()) {
+            return false;
+        }
+        load();
+        return true;
+    }
+
+    public boolean redo() {
+        if (history == null || !history.redo()) {
+            return false;
+        }
+        load();
+        return true;
+    }
+
+    private void load() {
+        long[] state = history.state();
+        board = state[0];
+        score = History.score(state[1]);
+        moves = History.moves(state[1]);
+        maxExponent = Bitboard.maxExponent(board);
+        updateOver();
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getSize() {
+        return SIZE;
+    }
+
+    public int getWinTile() {
+        return Bitboard.toValue(winExponent);
+    }
+
+    public int getHistoryDepth() {
+        return history == null ? 0 : history.getDepth();
+    }
+
+    public int getValueAt(int x, int y) {
+        if (x < 0 || x >= SIZE) {
+            throw new IllegalArgumentException("x is invalid");
+        }
+        if (y < 0 || y >= SIZE) {
+            throw new IllegalArgumentException("y is invalid");
+        }
+
+        return Bitboard.toValue(Bitboard.get(board, x, y));
+    }
+
+    public boolean isOver() {
+        return over;
+    }
+
+    public boolean isWon() {
+        return maxExponent >= winExponent;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("Moves: ");
+        sb.append(moves);
+        sb.append("\t\tScore: ");
+        sb.append(score);
+        sb.append("\n");
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                if (Bitboard.get(board, x, y) == 0) {
+                    sb.append(".\t\t");
+                } else {
+                    sb.append(getValueAt(x, y));
+                    sb.append("\t\t");
+                }
+            }
+            sb.append("\n");
+        }
+
+        return sb.toString();
+    }
+
+    int getTilesCount() {
+        return SIZE * SIZE - Bitboard.countEmpty(board);
+    }
+
+    long getBoard() {
+        return board;
+    }
+
+    RandomSource getRandom() {
+        return random;
+    }
+
+    History getHistory() {
+        return history;
+    }
+}
@@ -0,0 +1,460 @@
+package spw4.game2048;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+// Keeps 4x4 games on SplitMixRandom as primitive fields in open addressing tables instead of
+// objects: id, board, random state, score, moves, move log ordinal, win tile and timestamps take
+// 54 bytes per slot, plus a reference to the undo history if the game has one. An action gets
+// a BitboardGame view that is written back when it returns.
+// The tables are split into segments whose locks are only held to look up or write back a game;
+// a busy flag per game keeps actions on the same game from overlapping. Games of other sizes,
+// win tiles or random sources are kept in a GameRegistry with the same timeouts. maxSize bounds both
+// together: the registry may fill half of it, and over the bound the least recently used compact games
+// other than the one just added are evicted.
+public final class CompactGameStore implements GameStore {
+
+    private static final int SEGMENTS = 64;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final byte USED = 1;
+    private static final byte BUSY = 2;
+    private static final Consumer<Game> NO_LISTENER = game -> { };
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final GameRegistry others;
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final int maxSize;
+    private final long timeToLive;
+    private final long idleTimeout;
+    private final LongSupplier clock;
+    private final long epoch;
+
+    private final LongAdder expiredEvictions = new LongAdder();
+    private final LongAdder capacityEvictions = new LongAdder();
+    private volatile Consumer<Game> removalListener = NO_LISTENER;
+    // views of logged games append to the log of the first logged game added
+    private final AtomicReference<MoveLog> log = new AtomicReference<>();
+
+    public CompactGameStore() {
+        this(GameRegistry.DEFAULT_MAX_SIZE, GameRegistry.DEFAULT_TIME_TO_LIVE, GameRegistry.DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public CompactGameStore(int maxSize, Duration timeToLive, Duration idleTimeout) {
+        this(maxSize, timeToLive, idleTimeout, System::nanoTime);
+    }
+
+    CompactGameStore(int maxSize, Duration timeToLive, Duration idleTimeout, LongSupplier clock) {
+        others = new GameRegistry(Math.max(1, maxSize / 2), timeToLive, idleTimeout, clock);
+        this.maxSize = maxSize;
+        // timestamps are stored as seconds since the store was created
+        this.timeToLive = timeToLive.toSeconds();
+        this.idleTimeout = idleTimeout.toSeconds();
+        this.clock = clock;
+        this.epoch = clock.getAsLong();
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public UUID add(Game game) {
+        UUID id = UUID.randomUUID();
+        add(id, game);
+        return id;
+    }
+
+    public void add(UUID id, Game game) {
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        if (!isCompact(game)) {
+            others.add(id, game);
+        } else {
+            Segment segment = segment(high, low);
+            if (segment.insert(high, low, game, now())) {
+                count.incrementAndGet();
+            }
+        }
+        if (size() > maxSize) {
+            evictExpired();
+            evictLeastRecentlyUsed(high, low);
+        }
+    }
+
+    private boolean isCompact(Game game) {
+        Game inner = game;
+        if (game instanceof LoggedGame logged) {
+            log.compareAndSet(null, logged.getLog());
+            if (logged.getLog() != log.get()) {
+                return false;
+            }
+            inner = logged.getGame();
+        }
+        return inner instanceof BitboardGame bitboard && bitboard.getRandom() instanceof SplitMixRandom;
+    }
+
+    public void setRemovalListener(Consumer<Game> removalListener) {
+        this.removalListener = removalListener;
+        others.setRemovalListener(removalListener);
+    }
+
+    public <T> T apply(UUID id, Function<Game, T> action) {
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        Segment segment = segment(high, low);
+        Game view = segment.acquire(id, now(), true);
+        if (view == null) {
+            return others.apply(id, action);
+        }
+
+        try {
+            return action.apply(view);
+        } finally {
+            segment.release(high, low, view);
+        }
+    }
+
+    public void forEach(BiConsumer<UUID, Game> action) {
+        for (Segment segment : segments) {
+            for (UUID id : segment.ids()) {
+                Game view = segment.acquire(id, 0, false);
+                if (view != null) {
+                    try {
+                        action.accept(id, view);
+                    } finally {
+                        segment.release(id.getMostSignificantBits(), id.getLeastSignificantBits(), view);
+                    }
+                }
+            }
+        }
+        others.forEach(action);
+    }
+
+    public void evictExpired() {
+        int now = now();
+        for (Segment segment : segments) {
+            segment.evictExpired(now);
+        }
+        others.evictExpired();
+    }
+
+    // only compact games; the other games evict against their own half in the registry. Access times
+    // are whole seconds, so the game just added (high, low) may tie with the oldest and is skipped.
+    private void evictLeastRecentlyUsed(long high, long low) {
+        int excess = size() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+
+        // evict down to 90% of the capacity, so a full store does not scan on every add
+        int[] accessTimes = new int[count.get()];
+        int n = 0;
+        for (Segment segment : segments) {
+            n = segment.accessTimes(accessTimes, n);
+        }
+        Arrays.sort(accessTimes, 0, n);
+        int remaining = Math.min(excess + maxSize / 10, n);
+        if (remaining == 0) {
+            return;
+        }
+
+        int cutoff = accessTimes[remaining - 1];
+        for (Segment segment : segments) {
+            if (remaining == 0) break;
+            remaining = segment.evictAccessedBefore(cutoff, remaining, high, low);
+        }
+    }
+
+    public int size() {
+        return count.get() + others.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getExpiredEvictions() {
+        return expiredEvictions.sum() + others.getExpiredEvictions();
+    }
+
+    public long getCapacityEvictions() {
+        return capacityEvictions.sum() + others.getCapacityEvictions();
+    }
+
+    private int now() {
+        return (int) ((clock.getAsLong() - epoch) / 1_000_000_000L);
+    }
+
+    private Segment segment(long high, long low) {
+        return segments[hash(high, low) >>> 26];
+    }
+
+    // the upper bits pick the segment, the lower bits the home slot within it
+    private static int hash(long high, long low) {
+        long h = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private final class Segment {
+        private long[] highs;
+        private long[] lows;
+        private long[] boards;
+        private long[] randoms;
+        private int[] scores;
+        private int[] moves;
+        private int[] ordinals;
+        private int[] created;
+        private int[] lastAccess;
+        private byte[] winExponents;
+        private byte[] flags;
+        private History[] histories;
+        private int size;
+
+        private Segment() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        private void allocate(int capacity) {
+            highs = new long[capacity];
+            lows = new long[capacity];
+            boards = new long[capacity];
+            randoms = new long[capacity];
+            scores = new int[capacity];
+            moves = new int[capacity];
+            ordinals = new int[capacity];
+            created = new int[capacity];
+            lastAccess = new int[capacity];
+            winExponents = new byte[capacity];
+            flags = new byte[capacity];
+            histories = new History[capacity];
+        }
+
+        private int find(long high, long low) {
+            int mask = flags.length - 1;
+            for (int slot = hash(high, low) & mask; flags[slot] != 0; slot = (slot + 1) & mask) {
+                if (highs[slot] == high && lows[slot] == low) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        // returns whether the game is new
+        private synchronized boolean insert(long high, long low, Game game, int now) {
+            int slot = find(high, low);
+            if (slot >= 0) {
+                store(slot, game);
+                return false;
+            }
+
+            if ((size + 1) * 4 > flags.length * 3) {
+                resize(flags.length * 2);
+            }
+            int mask = flags.length - 1;
+            slot = hash(high, low) & mask;
+            while (flags[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            highs[slot] = high;
+            lows[slot] = low;
+            created[slot] = now;
+            lastAccess[slot] = now;
+            flags[slot] = USED;
+            store(slot, game);
+            size++;
+            return true;
+        }
+
+        private void resize(int capacity) {
+            Segment old = new Segment(this);
+            allocate(capacity);
+            int mask = capacity - 1;
+            for (int from = 0; from < old.flags.length; from++) {
+                if (old.flags[from] != 0) {
+                    int to = hash(old.highs[from], old.lows[from]) & mask;
+                    while (flags[to] != 0) {
+                        to = (to + 1) & mask;
+                    }
+                    copy(old, from, to);
+                }
+            }
+        }
+
+        // only holds the arrays of a segment that is being resized
+        private Segment(Segment segment) {
+            highs = segment.highs;
+            lows = segment.lows;
+            boards = segment.boards;
+            randoms = segment.randoms;
+            scores = segment.scores;
+            moves = segment.moves;
+            ordinals = segment.ordinals;
+            created = segment.created;
+            lastAccess = segment.lastAccess;
+            winExponents = segment.winExponents;
+            flags = segment.flags;
+            histories = segment.histories;
+        }
+
+        private void copy(Segment source, int from, int to) {
+            highs[to] = source.highs[from];
+            lows[to] = source.lows[from];
+            boards[to] = source.boards[from];
+            randoms[to] = source.randoms[from];
+            scores[to] = source.scores[from];
+            moves[to] = source.moves[from];
+            ordinals[to] = source.ordinals[from];
+            created[to] = source.created[from];
+            lastAccess[to] = source.lastAccess[from];
+            winExponents[to] = source.winExponents[from];
+            flags[to] = source.flags[from];
+            histories[to] = source.histories[from];
+        }
+
+        // backward shift deletion, so lookups never need tombstones
+        private void remove(int slot) {
+            int mask = flags.length - 1;
+            flags[slot] = 0;
+            size--;
+            count.decrementAndGet();
+
+            int gap = slot;
+            for (int i = (slot + 1) & mask; flags[i] != 0; i = (i + 1) & mask) {
+                int home = hash(highs[i], lows[i]) & mask;
+                // the entry moves into the gap unless its home slot lies between the gap and itself
+                if (((i - home) & mask) >= ((i - gap) & mask)) {
+                    copy(this, i, gap);
+                    flags[i] = 0;
+                    gap = i;
+                }
+            }
+            histories[gap] = null;
+        }
+
+        private void store(int slot, Game game) {
+            int ordinal = -1;
+            if (game instanceof LoggedGame logged) {
+                ordinal = logged.getOrdinal();
+                game = logged.getGame();
+            }
+            BitboardGame bitboard = (BitboardGame) game;
+            boards[slot] = bitboard.getBoard();
+            randoms[slot] = ((SplitMixRandom) bitboard.getRandom()).getState();
+            scores[slot] = bitboard.getScore();
+            moves[slot] = bitboard.getMoves();
+            ordinals[slot] = ordinal;
+            winExponents[slot] = (byte) Bitboard.toExponent(bitboard.getWinTile());
+            histories[slot] = bitboard.getHistory();
+        }
+
+        private Game view(int slot) {
+            BitboardGame game = new BitboardGame(boards[slot], Bitboard.toValue(winExponents[slot]),
+                    scores[slot], moves[slot], histories[slot], new SplitMixRandom(randoms[slot]));
+            return ordinals[slot] < 0 ? game : new LoggedGame(game, ordinals[slot], log.get());
+        }
+
+        // marks the game busy and returns a view of it, or null if the segment does not hold it
+        private synchronized Game acquire(UUID id, int now, boolean touch) {
+            long high = id.getMostSignificantBits();
+            long low = id.getLeastSignificantBits();
+            boolean interrupted = false;
+            int slot;
+            while ((slot = find(high, low)) >= 0 && (flags[slot] & BUSY) != 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (slot < 0) {
+                return null;
+            }
+
+            if (touch) {
+                if (isExpired(slot, now)) {
+                    evict(slot);
+                    expiredEvictions.increment();
+                    throw new GameExpiredException(id);
+                }
+                lastAccess[slot] = now;
+            }
+            flags[slot] |= BUSY;
+            return view(slot);
+        }
+
+        // the game may have moved or been replaced meanwhile, so it is looked up again
+        private synchronized void release(long high, long low, Game view) {
+            int slot = find(high, low);
+            if (slot >= 0 && (flags[slot] & BUSY) != 0) {
+                store(slot, view);
+                flags[slot] = USED;
+            }
+            notifyAll();
+        }
+
+        private synchronized UUID[] ids() {
+            UUID[] ids = new UUID[size];
+            int n = 0;
+            for (int slot = 0; slot < flags.length; slot++) {
+                if (flags[slot] != 0) {
+                    ids[n++] = new UUID(highs[slot], lows[slot]);
+                }
+            }
+            return ids;
+        }
+
+        private boolean isExpired(int slot, int now) {
+            return now - created[slot] > timeToLive || now - lastAccess[slot] > idleTimeout;
+        }
+
+        // the listener runs under the segment lock; removal shifts later games into the slot,
+        // so the slot is checked again
+        private void evict(int slot) {
+            if (removalListener != NO_LISTENER) {
+                removalListener.accept(view(slot));
+            }
+            remove(slot);
+        }
+
+        private synchronized void evictExpired(int now) {
+            for (int slot = 0; slot < flags.length; slot++) {
+                while (flags[slot] == USED && isExpired(slot, now)) {
+                    evict(slot);
+                    expiredEvictions.increment();
+                }
+            }
+        }
+
+        private synchronized int accessTimes(int[] accessTimes, int n) {
+            for (int slot = 0; slot < flags.length && n < accessTimes.length; slot++) {
+                if (flags[slot] == USED) {
+                    accessTimes[n++] = lastAccess[slot];
+                }
+            }
+            return n;
+        }
+
+        // returns how many games are still to be evicted
+        private synchronized int evictAccessedBefore(int cutoff, int remaining, long keepHigh, long keepLow) {
+            for (int slot = 0; slot < flags.length && remaining > 0; slot++) {
+                while (remaining > 0 && flags[slot] == USED && lastAccess[slot] <= cutoff
+                        && (highs[slot] != keepHigh || lows[slot] != keepLow)) {
+                    evict(slot);
+                    capacityEvictions.increment();
+                    remaining--;
+                }
+            }
+            return remaining;
+        }
+    }
+}
@@ -4,5 +4,23 @@ public enum Direction {
     up,
     down,
     left,
-    right
+    right;
+
+    public static Direction fromCode(char code) {
+        return switch (code) {
+            case 'U', 'u' -> up;
+            case 'D', 'd' -> down;
+            case 'L', 'l' -> left;
+            case 'R', 'r' -> right;
+            default -> throw new IllegalArgumentException("invalid direction code " + code);
+        };
+    }
+
+    public static Direction[] fromCodes(CharSequence codes) {
+        Direction[] directions = new Direction[codes.length()];
+        for (int i = 0; i < directions.length; i++) {
+            directions[i] = fromCode(codes.charAt(i));
+        }
+        return directions;
+    }
 }
@@ -0,0 +1,234 @@
+package spw4.game2048;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public final class ExpectimaxSolver {
+
+    public static final int DEFAULT_MAX_DEPTH = 3;
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofMillis(100);
+    public static final int DEFAULT_TABLE_CAPACITY = 1 << 20;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final float PROBABILITY_CUTOFF = 0.0001f;
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private static final float LOST_PENALTY = 200000f;
+    private static final float MONOTONICITY_POWER = 4f;
+    private static final float MONOTONICITY_WEIGHT = 47f;
+    private static final float SUM_POWER = 3.5f;
+    private static final float SUM_WEIGHT = 11f;
+    private static final float MERGES_WEIGHT = 700f;
+    private static final float EMPTY_WEIGHT = 270f;
+
+    private static final float[] rowHeuristic = new float[1 << 16];
+
+    static {
+        int[] line = new int[4];
+        for (int row = 0; row < rowHeuristic.length; row++) {
+            for (int i = 0; i < 4; i++) {
+                line[i] = (row >>> (4 * i)) & 0xF;
+            }
+
+            float sum = 0;
+            int empty = 0;
+            int merges = 0;
+            int previous = 0;
+            int counter = 0;
+            for (int rank : line) {
+                sum += Math.pow(rank, SUM_POWER);
+                if (rank == 0) {
+                    empty++;
+                } else {
+                    if (previous == rank) {
+                        counter++;
+                    } else if (counter > 0) {
+                        merges += 1 + counter;
+                        counter = 0;
+                    }
+                    previous = rank;
+                }
+            }
+            if (counter > 0) {
+                merges += 1 + counter;
+            }
+
+            float monotonicityLeft = 0;
+            float monotonicityRight = 0;
+            for (int i = 1; i < 4; i++) {
+                float difference = (float) (Math.pow(line[i - 1], MONOTONICITY_POWER) - Math.pow(line[i], MONOTONICITY_POWER));
+                if (difference > 0) {
+                    monotonicityLeft += difference;
+                } else {
+                    monotonicityRight -= difference;
+                }
+            }
+
+            rowHeuristic[row] = LOST_PENALTY + EMPTY_WEIGHT * empty + MERGES_WEIGHT * merges
+                    - MONOTONICITY_WEIGHT * Math.min(monotonicityLeft, monotonicityRight)
+                    - SUM_WEIGHT * sum;
+        }
+    }
+
+    private final int maxDepth;
+    private final long timeBudget;
+    private final ForkJoinPool pool;
+    private final TranspositionTable table;
+
+    public ExpectimaxSolver() {
+        this(DEFAULT_MAX_DEPTH, DEFAULT_TIME_BUDGET);
+    }
+
+    public ExpectimaxSolver(int maxDepth, Duration timeBudget) {
+        this(maxDepth, timeBudget, DEFAULT_TABLE_CAPACITY, ForkJoinPool.commonPool());
+    }
+
+    // without a pool the searches of the root moves run one after another on the calling thread, so the
+    // table only ever holds what this thread stored and a solve with an unlimited budget is reproducible
+    public ExpectimaxSolver(int maxDepth, Duration timeBudget, int tableCapacity, ForkJoinPool pool) {
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("maxDepth must be positive");
+        }
+
+        this.maxDepth = maxDepth;
+        this.timeBudget = timeBudget.toNanos();
+        this.table = new TranspositionTable(tableCapacity);
+        this.pool = pool;
+    }
+
+    public SolverResult solve(Game game) {
+        return solve(Bitboard.of(game));
+    }
+
+    public SolverResult solve(long board) {
+        long start = System.nanoTime();
+        long deadline = start + timeBudget;
+        long nodes = 0;
+        SolverResult best = new SolverResult(null, 0, 0, 0, 0);
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            Search[] searches = new Search[DIRECTIONS.length];
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                long moved = Bitboard.move(board, DIRECTIONS[i]);
+                if (moved != board) {
+                    // the first iteration always completes, so there is a move even on a tiny budget
+                    searches[i] = new Search(moved, depth, depth == 1 ? Long.MAX_VALUE : deadline);
+                }
+            }
+
+            for (Search search : searches) {
+                if (search == null) continue;
+                if (pool == null) {
+                    search.invoke();
+                } else {
+                    pool.execute(search);
+                }
+            }
+
+            Direction direction = null;
+            double value = Double.NEGATIVE_INFINITY;
+            boolean complete = true;
+            for (int i = 0; i < searches.length; i++) {
+                if (searches[i] == null) continue;
+                double result = searches[i].join();
+                nodes += searches[i].nodes;
+                complete &= !searches[i].aborted;
+                if (result > value) {
+                    value = result;
+                    direction = DIRECTIONS[i];
+                }
+            }
+
+            if (!complete) {
+                break;
+            }
+            best = new SolverResult(direction, direction == null ? 0 : value, depth, nodes, 0);
+            if (direction == null || System.nanoTime() > deadline) {
+                break;
+            }
+        }
+
+        return new SolverResult(best.direction(), best.value(), best.depth(), nodes, System.nanoTime() - start);
+    }
+
+    public void clear() {
+        table.clear();
+    }
+
+    static float heuristic(long board) {
+        long transposed = Bitboard.transpose(board);
+        return rowHeuristic[(int) board & 0xFFFF]
+                + rowHeuristic[(int) (board >>> 16) & 0xFFFF]
+                + rowHeuristic[(int) (board >>> 32) & 0xFFFF]
+                + rowHeuristic[(int) (board >>> 48) & 0xFFFF]
+                + rowHeuristic[(int) transposed & 0xFFFF]
+                + rowHeuristic[(int) (transposed >>> 16) & 0xFFFF]
+                + rowHeuristic[(int) (transposed >>> 32) & 0xFFFF]
+                + rowHeuristic[(int) (transposed >>> 48) & 0xFFFF];
+    }
+
+    private final class Search extends RecursiveTask<Double> {
+        private final long board;
+        private final int depth;
+        private final long deadline;
+        private long nodes;
+        private boolean aborted;
+
+        private Search(long board, int depth, long deadline) {
+            this.board = board;
+            this.depth = depth;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Double compute() {
+            return (double) chanceNode(board, depth, 1f);
+        }
+
+        private float chanceNode(long board, int depth, float probability) {
+            if (aborted) {
+                return 0;
+            }
+            if (++nodes % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                aborted = true;
+                return 0;
+            }
+            if (depth == 0 || probability < PROBABILITY_CUTOFF) {
+                return heuristic(board);
+            }
+
+            float cached = table.get(board, depth);
+            if (!Float.isNaN(cached)) {
+                return cached;
+            }
+
+            int empty = Bitboard.countEmpty(board);
+            float cellProbability = probability / empty;
+            float sum = 0;
+            for (int shift = 0; shift < 64; shift += 4) {
+                if (((board >>> shift) & 0xF) == 0) {
+                    sum += 0.9f * maxNode(board | 1L << shift, depth, cellProbability * 0.9f);
+                    sum += 0.1f * maxNode(board | 2L << shift, depth, cellProbability * 0.1f);
+                }
+            }
+            float value = sum / empty;
+
+            if (!aborted) {
+                table.put(board, depth, value);
+            }
+            return value;
+        }
+
+        private float maxNode(long board, int depth, float probability) {
+            float best = 0;
+            for (Direction direction : DIRECTIONS) {
+                long moved = Bitboard.move(board, direction);
+                if (moved != board) {
+                    best = Math.max(best, chanceNode(moved, depth - 1, probability));
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -1,11 +1,32 @@
 package spw4.game2048;
 
 public interface Game {
+    int DEFAULT_SIZE = 4;
+    int DEFAULT_WIN_TILE = 2048;
+
     void initialize();
-    void move(Direction direction);
+    long move(Direction direction);
+    // step through the last moves; both return false when there is nothing to undo or redo
+    boolean undo();
+    boolean redo();
     int getMoves();
     int getScore();
+    int getSize();
+    int getWinTile();
+    int getHistoryDepth();
     int getValueAt(int x, int y);
     boolean isOver();
     boolean isWon();
+
+    // 4x4 games run on the bitboard engine, every other size on the generic one
+    static Game create(int size, int winTile, RandomSource random) {
+        return create(size, winTile, 0, random);
+    }
+
+    static Game create(int size, int winTile, int historyDepth, RandomSource random) {
+        if (size == Bitboard.SIZE && winTile <= Bitboard.toValue(Bitboard.MAX_EXPONENT)) {
+            return new BitboardGame(winTile, historyDepth, random);
+        }
+        return new GameImpl(size, winTile, historyDepth, random);
+    }
 }
@@ -0,0 +1,294 @@
+package spw4.game2048;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.UnaryOperator;
+
+// The request handling the servlets share with the standalone server, free of servlet types: page and api
+// take the request parameters and answer through a Response adapter over the servlet or exchange.
+final class GameActions {
+
+    static final int MAX_BATCH_MOVES = 100_000;
+    static final String HTML_CONTENT_TYPE = "text/html;charset=UTF-8";
+    static final String NDJSON_CONTENT_TYPE = "application/x-ndjson;charset=UTF-8";
+
+    // The response side of a request. Every request ends in exactly one call of send or sendNoContent,
+    // made after the game has been released.
+    interface Response {
+        void send(int status, String contentType, byte[] body) throws IOException;
+
+        void sendNoContent() throws IOException;
+
+        // an unexpected failure, answered with a 500 afterwards
+        void failed(RuntimeException e);
+    }
+
+    private final GameStore games;
+    private final MoveLog log;
+    private final ExpectimaxSolver solver;
+    private final Tablebase tablebase;
+    private final Metrics metrics;
+    private final int historyDepth;
+
+    // log and tablebase may be null
+    GameActions(GameStore games, MoveLog log, ExpectimaxSolver solver, Tablebase tablebase, Metrics metrics,
+                int historyDepth) {
+        this.games = games;
+        this.log = log;
+        this.solver = solver;
+        this.tablebase = tablebase;
+        this.metrics = metrics;
+        this.historyDepth = historyDepth;
+    }
+
+    // the HTML page at /Game
+    void page(UnaryOperator<String> parameters, Response response) throws IOException {
+        handle(parameters, response, true);
+    }
+
+    // the JSON and binary state at /api/game
+    void api(UnaryOperator<String> parameters, Response response) throws IOException {
+        handle(parameters, response, false);
+    }
+
+    private void handle(UnaryOperator<String> parameters, Response response, boolean page) throws IOException {
+        GameRequestEvent event = new GameRequestEvent();
+        event.begin();
+
+        try {
+            String action = parameters.apply("action");
+            event.action = action == null ? "" : action;
+            if (page) {
+                page(parameters, event, response);
+            } else {
+                api(parameters, event, response);
+            }
+        }
+        catch (GameExpiredException e) {
+            error(response, page, 410, "game expired");
+        }
+        catch (IllegalArgumentException e) {
+            // a malformed id, direction or variant
+            error(response, page, 400, "invalid request");
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        catch (RuntimeException e) {
+            metrics.error();
+            response.failed(e);
+            error(response, page, 500, "internal error");
+        }
+        finally {
+            event.commit();
+        }
+    }
+
+    private void page(UnaryOperator<String> parameters, GameRequestEvent event, Response response)
+            throws IOException {
+        String action = event.action;
+        // rendered into a buffer first, so the response gets a content length
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+
+        if ("new".equals(action)) {
+            UUID id = UUID.randomUUID();
+            Game newGame = newGame(parameters.apply("size"), parameters.apply("win"), id, games, log, historyDepth);
+            metrics.gameCreated();
+            event.size = newGame.getSize();
+            event.changed = true;
+            metrics.render(id, newGame, null, out);
+            response.send(200, HTML_CONTENT_TYPE, out.toByteArray());
+            return;
+        }
+
+        String idString = parameters.apply("id");
+        if (idString == null) {
+            error(response, true, 400, "invalid request");
+            return;
+        }
+        UUID id = UUID.fromString(idString);
+        boolean hint = "hint".equals(action);
+        Search search = hint ? search(id) : null;
+
+        boolean rendered = metrics.apply(games, id, game -> {
+            event.size = game.getSize();
+            boolean unchanged = switch (action) {
+                case "up", "down", "left", "right", "undo", "redo" -> !play(game, action, metrics);
+                default -> false;
+            };
+            if (unchanged) {
+                return false;
+            }
+
+            try {
+                metrics.render(id, game, hint ? hint(game, search) : null, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        });
+        event.changed = rendered;
+        if (!rendered) {
+            // the page in the browser is still up to date
+            response.sendNoContent();
+            return;
+        }
+        response.send(200, HTML_CONTENT_TYPE, out.toByteArray());
+    }
+
+    private void api(UnaryOperator<String> parameters, GameRequestEvent event, Response response)
+            throws IOException {
+        String action = event.action;
+        boolean binary = "binary".equals(parameters.apply("format"));
+
+        if ("new".equals(action)) {
+            UUID id = UUID.randomUUID();
+            Game newGame = newGame(parameters.apply("size"), parameters.apply("win"), id, games, log, historyDepth);
+            metrics.gameCreated();
+            event.size = newGame.getSize();
+            event.changed = true;
+            response.send(200, contentType(binary), encode(id, newGame, binary));
+            return;
+        }
+
+        String idString = parameters.apply("id");
+        if (idString == null) {
+            error(response, false, 400, "invalid request");
+            return;
+        }
+        UUID id = UUID.fromString(idString);
+        String sequence = parameters.apply("moves");
+        if (sequence != null) {
+            event.action = "moves";
+            applyMoves(id, sequence, "true".equals(parameters.apply("trace")), binary, response);
+            return;
+        }
+
+        byte[] state = metrics.apply(games, id, game -> {
+            event.size = game.getSize();
+            boolean changed = action.isEmpty() || play(game, action, metrics);
+            return changed ? encode(id, game, binary) : null;
+        });
+        event.changed = state != null;
+        if (state == null) {
+            // the client already holds the current state
+            response.sendNoContent();
+            return;
+        }
+        response.send(200, contentType(binary), state);
+    }
+
+    private void applyMoves(UUID id, String sequence, boolean trace, boolean binary, Response response)
+            throws IOException {
+        if (sequence.length() > MAX_BATCH_MOVES) {
+            throw new IllegalArgumentException("too many moves");
+        }
+        Direction[] directions = Direction.fromCodes(sequence);
+
+        if (!trace) {
+            byte[] state = metrics.apply(games, id, game -> {
+                for (int i = 0; i < directions.length && !game.isOver(); i++) {
+                    metrics.move(game, directions[i]);
+                }
+                return encode(id, game, binary);
+            });
+            response.send(200, contentType(binary), state);
+            return;
+        }
+
+        // encoded while the game is held and sent once it is released, so a slow client holds up nobody
+        ByteArrayOutputStream states = metrics.apply(games, id, game -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+            writeState(out, id, game, binary);
+            for (int i = 0; i < directions.length && !game.isOver(); i++) {
+                if (MoveResult.changed(metrics.move(game, directions[i]))) {
+                    writeState(out, id, game, binary);
+                }
+            }
+            return out;
+        });
+        response.send(200, binary ? GameStateEncoder.BINARY_CONTENT_TYPE : NDJSON_CONTENT_TYPE, states.toByteArray());
+    }
+
+    private static void writeState(ByteArrayOutputStream out, UUID id, Game game, boolean binary) {
+        out.writeBytes(encode(id, game, binary));
+        if (!binary) {
+            out.write('\n');
+        }
+    }
+
+    private static byte[] encode(UUID id, Game game, boolean binary) {
+        return binary ? GameStateEncoder.toBinary(id, game) : GameStateEncoder.toJson(id, game);
+    }
+
+    private static String contentType(boolean binary) {
+        return binary ? GameStateEncoder.BINARY_CONTENT_TYPE : GameStateEncoder.JSON_CONTENT_TYPE;
+    }
+
+    // plain text for the page, a JSON error for the api
+    private static void error(Response response, boolean page, int status, String message) throws IOException {
+        if (page) {
+            response.send(status, HTML_CONTENT_TYPE, (message + "\n").getBytes(StandardCharsets.UTF_8));
+        } else {
+            response.send(status, GameStateEncoder.JSON_CONTENT_TYPE, GameStateEncoder.error(message));
+        }
+    }
+
+    // size and win select a variant, e.g. Game?action=new&size=5&win=4096; both are optional.
+    // The game is added to the store under id, together with its creation in the log if there is one.
+    static Game newGame(String size, String win, UUID id, GameStore games, MoveLog log, int historyDepth) {
+        long seed = ThreadLocalRandom.current().nextLong();
+        Game game = Game.create(
+                size == null ? Game.DEFAULT_SIZE : Integer.parseInt(size),
+                win == null ? Game.DEFAULT_WIN_TILE : Integer.parseInt(win),
+                historyDepth,
+                new SplitMixRandom(seed));
+        game.initialize();
+        if (log == null) {
+            games.add(id, game);
+            return game;
+        }
+        return log.track(id, seed, game, games::add);
+    }
+
+    private record Search(long board, Direction direction) {
+    }
+
+    // the solver searches the standard 4x4 board, taken in one access and searched once the game is released;
+    // null if the tablebase answers the game or the solver does not cover it
+    private Search search(UUID id) {
+        Long board = metrics.apply(games, id, game ->
+                tablebase != null && tablebase.best(game) != null || game.getSize() != Bitboard.SIZE
+                        ? null
+                        : Bitboard.of(game));
+        return board == null ? null : new Search(board, solver.solve(board).direction());
+    }
+
+    // under the game's lock: a tablebase answers the board and win tile it was built for exactly, a search only
+    // the board it was made for, so the hint always belongs to the board rendered beside it; null otherwise
+    private Direction hint(Game game, Search search) {
+        Direction hint = tablebase == null ? null : tablebase.best(game);
+        if (hint == null && search != null && search.board() == Bitboard.of(game)) {
+            hint = search.direction();
+        }
+        if (hint != null) {
+            metrics.hint();
+        }
+        return hint;
+    }
+
+    // a direction, undo or redo; false if the game stayed as it was, a finished game no longer moves
+    static boolean play(Game game, String action, Metrics metrics) {
+        return switch (action) {
+            case "up", "down", "left", "right" ->
+                    !game.isOver() && MoveResult.changed(metrics.move(game, Direction.valueOf(action)));
+            case "undo" -> metrics.undo(game);
+            case "redo" -> metrics.redo(game);
+            default -> throw new IllegalArgumentException("action is invalid");
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package spw4.game2048;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@WebServlet("/api/game")
+public class GameApiServlet extends HttpServlet {
+    private GameActions actions;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        actions = GameContextListener.getActions(getServletContext());
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        actions.api(request::getParameter, new ServletGameResponse(this, request.getQueryString(), response));
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        doGet(request, response);
+    }
+}
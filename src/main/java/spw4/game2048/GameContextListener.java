@@ -0,0 +1,247 @@
+package spw4.game2048;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import javax.websocket.DeploymentException;
+import javax.websocket.server.ServerContainer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@WebListener
+public class GameContextListener implements ServletContextListener {
+
+    static final String REGISTRY = GameStore.class.getName();
+    static final String SOLVER = ExpectimaxSolver.class.getName();
+    static final String TABLEBASE = Tablebase.class.getName();
+    static final String LOG = MoveLog.class.getName();
+    static final String HISTORY_DEPTH = History.class.getName();
+    static final String METRICS = Metrics.class.getName();
+    static final String REQUEST_EXECUTOR = GameServlet.class.getName() + ".executor";
+    static final String REQUEST_TIMEOUT = GameServlet.class.getName() + ".timeout";
+    static final int DEFAULT_REQUEST_THREADS = 200;
+    static final int DEFAULT_REQUEST_TIMEOUT_MILLIS = 30_000;
+    static final int DEFAULT_HISTORY_DEPTH = History.DEFAULT_DEPTH;
+
+    private ScheduledExecutorService evictor;
+    private ScheduledExecutorService flusher;
+    private ScheduledExecutorService snapshots;
+    private ExecutorService requests;
+    private MoveLog log;
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        ServletContext context = event.getServletContext();
+        int maxGames = intParameter(context, "game2048.maxGames", GameRegistry.DEFAULT_MAX_SIZE);
+        Duration timeToLive = Duration.ofMinutes(intParameter(context, "game2048.gameTimeToLiveMinutes",
+                (int) GameRegistry.DEFAULT_TIME_TO_LIVE.toMinutes()));
+        Duration idleTimeout = Duration.ofMinutes(intParameter(context, "game2048.gameIdleTimeoutMinutes",
+                (int) GameRegistry.DEFAULT_IDLE_TIMEOUT.toMinutes()));
+        GameStore games = Boolean.parseBoolean(stringParameter(context, "game2048.compactSessions", "true"))
+                ? new CompactGameStore(maxGames, timeToLive, idleTimeout)
+                : new GameRegistry(maxGames, timeToLive, idleTimeout);
+        Metrics metrics = new Metrics();
+
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game2048-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(games::evictExpired, 1, 1, TimeUnit.MINUTES);
+
+        String dataDir = context.getInitParameter("game2048.dataDir");
+        if (dataDir != null && !dataDir.isBlank()) {
+            openLog(context, games, Path.of(dataDir.trim()),
+                    intParameter(context, "game2048.logFlushMillis", 50),
+                    intParameter(context, "game2048.snapshotMinutes", 10));
+        }
+
+        // the container publishes its WebSocket support under the interface name
+        ServerContainer container = (ServerContainer) context.getAttribute(ServerContainer.class.getName());
+        if (container == null) {
+            context.log("the container does not support WebSocket, live updates are disabled");
+        } else {
+            try {
+                container.addEndpoint(LiveGameEndpoint.config(games, metrics));
+            } catch (DeploymentException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // reading the build time builds the move table now instead of in the first request
+        context.log(String.format("move table of %d KB built in %.1f ms",
+                MoveTable.BYTES / 1024, MoveTable.BUILD_NANOS / 1e6));
+
+        String tablebase = context.getInitParameter("game2048.tablebase");
+        if (tablebase != null && !tablebase.isBlank()) {
+            try {
+                Tablebase opened = Tablebase.open(Path.of(tablebase.trim()));
+                context.setAttribute(TABLEBASE, opened);
+                context.log(String.format("tablebase for %dx%d boards to %d mapped from %s",
+                        opened.getSize(), opened.getSize(), opened.getWinTile(), tablebase.trim()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        context.setAttribute(REGISTRY, games);
+        context.setAttribute(METRICS, metrics);
+        if (Boolean.parseBoolean(stringParameter(context, "game2048.asyncRequests", "true"))) {
+            requests = newRequestExecutor(intParameter(context, "game2048.requestThreads", DEFAULT_REQUEST_THREADS));
+            context.setAttribute(REQUEST_EXECUTOR, requests);
+            context.setAttribute(REQUEST_TIMEOUT,
+                    intParameter(context, "game2048.requestTimeoutMillis", DEFAULT_REQUEST_TIMEOUT_MILLIS));
+        }
+        context.setAttribute(HISTORY_DEPTH, intParameter(context, "game2048.historyDepth", DEFAULT_HISTORY_DEPTH));
+        context.setAttribute(SOLVER, new ExpectimaxSolver(
+                intParameter(context, "game2048.hintDepth", ExpectimaxSolver.DEFAULT_MAX_DEPTH),
+                Duration.ofMillis(intParameter(context, "game2048.hintTimeMillis",
+                        (int) ExpectimaxSolver.DEFAULT_TIME_BUDGET.toMillis()))));
+    }
+
+    // a virtual thread per request where the runtime has them (Java 21), otherwise a fixed pool of platform
+    // threads; game2048.requestThreads only sizes the pool
+    static ExecutorService newRequestExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "game2048-request-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void openLog(ServletContext context, GameStore games, Path directory,
+                         int flushMillis, int snapshotMinutes) {
+        try {
+            log = new MoveLog(directory);
+            games.setRemovalListener(log::remove);
+            long start = System.nanoTime();
+            int restored = log.replay(games::add);
+            context.log(String.format("restored %d games from %s in %d ms",
+                    restored, directory, (System.nanoTime() - start) / 1_000_000));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game2048-log-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                log.flush();
+            } catch (IOException e) {
+                context.log("flushing the move log failed", e);
+            }
+        }, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+
+        // snapshots run on their own thread, so they never delay a flush
+        Snapshotter snapshotter = new Snapshotter(log, games);
+        snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game2048-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshots.scheduleWithFixedDelay(() -> {
+            try {
+                long start = System.nanoTime();
+                int count = snapshotter.snapshot();
+                context.log(String.format("snapshot of %d games took %d ms",
+                        count, (System.nanoTime() - start) / 1_000_000));
+            } catch (IOException | RuntimeException e) {
+                context.log("writing a snapshot failed", e);
+            }
+        }, snapshotMinutes, snapshotMinutes, TimeUnit.MINUTES);
+        context.setAttribute(LOG, log);
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        evictor.shutdownNow();
+        if (requests != null) {
+            requests.shutdownNow();
+            event.getServletContext().removeAttribute(REQUEST_EXECUTOR);
+            event.getServletContext().removeAttribute(REQUEST_TIMEOUT);
+        }
+        if (log != null) {
+            snapshots.shutdownNow();
+            flusher.shutdownNow();
+            try {
+                log.close();
+            } catch (IOException e) {
+                event.getServletContext().log("closing the move log failed", e);
+            }
+            event.getServletContext().removeAttribute(LOG);
+        }
+        event.getServletContext().removeAttribute(REGISTRY);
+        event.getServletContext().removeAttribute(METRICS);
+        event.getServletContext().removeAttribute(SOLVER);
+        event.getServletContext().removeAttribute(TABLEBASE);
+        event.getServletContext().removeAttribute(HISTORY_DEPTH);
+    }
+
+    // the request handling over the attributes above, for one servlet
+    static GameActions getActions(ServletContext context) {
+        return new GameActions(getRegistry(context), getLog(context), getSolver(context), getTablebase(context),
+                getMetrics(context), getHistoryDepth(context));
+    }
+
+    static GameStore getRegistry(ServletContext context) {
+        return (GameStore) context.getAttribute(REGISTRY);
+    }
+
+    static Metrics getMetrics(ServletContext context) {
+        return (Metrics) context.getAttribute(METRICS);
+    }
+
+    // null when requests run on the container's threads
+    static Executor getRequestExecutor(ServletContext context) {
+        return (Executor) context.getAttribute(REQUEST_EXECUTOR);
+    }
+
+    // how long a request handed to the executor may take before it is answered with a 503
+    static int getRequestTimeoutMillis(ServletContext context) {
+        return (Integer) context.getAttribute(REQUEST_TIMEOUT);
+    }
+
+    static ExpectimaxSolver getSolver(ServletContext context) {
+        return (ExpectimaxSolver) context.getAttribute(SOLVER);
+    }
+
+    // null when no tablebase is configured
+    static Tablebase getTablebase(ServletContext context) {
+        return (Tablebase) context.getAttribute(TABLEBASE);
+    }
+
+    static int getHistoryDepth(ServletContext context) {
+        return (Integer) context.getAttribute(HISTORY_DEPTH);
+    }
+
+    // null when no data directory is configured
+    static MoveLog getLog(ServletContext context) {
+        return (MoveLog) context.getAttribute(LOG);
+    }
+
+    private static int intParameter(ServletContext context, String name, int defaultValue) {
+        return Integer.parseInt(stringParameter(context, name, Integer.toString(defaultValue)));
+    }
+
+    private static String stringParameter(ServletContext context, String name, String defaultValue) {
+        String value = context.getInitParameter(name);
+        return value == null ? defaultValue : value.trim();
+    }
+}
@@ -0,0 +1,10 @@
+package spw4.game2048;
+
+import java.util.UUID;
+
+public final class GameExpiredException extends RuntimeException {
+
+    public GameExpiredException(UUID id) {
+        super("game " + id + " does not exist or has expired");
+    }
+}
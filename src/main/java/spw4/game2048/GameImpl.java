@@ -1,165 +1,226 @@
 package spw4.game2048;
 
-import java.awt.*;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Random;
-
 public final class GameImpl implements Game {
 
-    public static Random random;
+    static final int MIN_SIZE = 2;
+    static final int MAX_SIZE = 8;
+
+    private final RandomSource random;
+    private final History history;
 
-    private final int SIZE = 4;
-    private int[][] gameBoard = new int[SIZE][SIZE];
-    private int tilesCount = 0;
+    private final int size;
+    private final int winTile;
+    private final int[] gameBoard;
+    private long emptyCells;
+    private int maxTile = 0;
+    private boolean over = false;
+    private boolean changed = false;
 
     private int moves = 0;
     private int score = 0;
 
     public GameImpl() {
-        random = new Random(1234);
+        this(new SplitMixRandom());
+    }
+
+    public GameImpl(long seed) {
+        this(new SplitMixRandom(seed));
+    }
+
+    public GameImpl(RandomSource random) {
+        this(DEFAULT_SIZE, DEFAULT_WIN_TILE, random);
+    }
+
+    public GameImpl(int size, int winTile, RandomSource random) {
+        this(size, winTile, 0, random);
     }
 
-    GameImpl(int[][] gameBoard) {
-        this();
-        this.gameBoard = gameBoard;
-        for (int y = 0; y < gameBoard.length; y++) {
-            for (int x = 0; x < gameBoard.length; x++) {
-                if (gameBoard[x][y] != 0) tilesCount++;
+    // the history packs one exponent per byte, eight cells per long
+    public GameImpl(int size, int winTile, int historyDepth, RandomSource random) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        if (winTile < 4 || Integer.bitCount(winTile) != 1) {
+            throw new IllegalArgumentException("win tile is invalid");
+        }
+
+        this.random = random;
+        this.history = History.create(historyDepth, (size * size + 7) / 8);
+        this.size = size;
+        this.winTile = winTile;
+        gameBoard = new int[size * size];
+        emptyCells = -1L >>> (Long.SIZE - size * size);
+    }
+
+    GameImpl(int[][] gameBoard, RandomSource random) {
+        this(gameBoard, DEFAULT_WIN_TILE, 0, 0, 0, random);
+    }
+
+    GameImpl(int[][] gameBoard, int winTile, int historyDepth, int score, int moves, RandomSource random) {
+        this(gameBoard.length, winTile, historyDepth, random);
+        this.score = score;
+        this.moves = moves;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                setValue(index(x, y), gameBoard[x][y]);
+                maxTile = Math.max(maxTile, gameBoard[x][y]);
             }
         }
+        updateOver();
     }
 
     public void initialize() {
         for (int i = 0; i < 2; i++) {
             generateNewValue();
         }
+        updateOver();
     }
 
+    // a single draw picks both the empty cell (draw / 10) and the value (draw % 10)
     private void generateNewValue() {
-        int x, y;
-        do {
-            x = random.nextInt(SIZE);
-            y = random.nextInt(SIZE);
-        } while (gameBoard[x][y] != 0);
+        int draw = random.nextInt(Long.bitCount(emptyCells) * 10);
+
+        long cells = emptyCells;
+        for (int i = draw / 10; i > 0; i--) {
+            cells &= cells - 1;
+        }
+
+        int value = draw % 10 == 9 ? 4 : 2;
+        setValue(Long.numberOfTrailingZeros(cells), value);
+        maxTile = Math.max(maxTile, value);
+    }
+
+    private void setValue(int index, int value) {
+        gameBoard[index] = value;
+        if (value == 0) {
+            emptyCells |= 1L << index;
+        } else {
+            emptyCells &= ~(1L << index);
+        }
+    }
 
-        gameBoard[x][y] = random.nextInt(10) == 9 ? 4 : 2;
-        tilesCount++;
+    private int index(int x, int y) {
+        return y * size + x;
     }
 
-    public void move(Direction direction) {
-        switch (direction) {
-            case left -> moveLeft();
-            case right -> moveRight();
-            case up -> moveUp();
-            case down -> moveDown();
+    public long move(Direction direction) {
+        // the board moves in place, so the first state is recorded before it changes
+        if (history != null && history.isEmpty()) {
+            record();
+        }
+        long emptyBefore = emptyCells;
+        int scoreBefore = score;
+        changed = false;
+
+        // every line is walked from the edge the tiles move towards
+        for (int line = 0; line < size; line++) {
+            switch (direction) {
+                case left -> moveLine(index(0, line), 1);
+                case right -> moveLine(index(size - 1, line), -1);
+                case up -> moveLine(index(line, 0), size);
+                case down -> moveLine(index(line, size - 1), -size);
+            }
+        }
+
+        if (!changed) {
+            return MoveResult.UNCHANGED;
         }
 
-        if (!isOver()) {
+        // every merge frees exactly one cell
+        int merges = Long.bitCount(emptyCells) - Long.bitCount(emptyBefore);
+        if (emptyCells != 0) {
             generateNewValue();
         }
+        updateOver();
         moves++;
+        if (history != null) {
+            record();
+        }
+        return MoveResult.of(merges, score - scoreBefore);
     }
 
-    private void moveLeft() {
-        List<Point> mergedPositions = new ArrayList<>();
-        for (int y = 0; y < SIZE; y++) {
-            int counter = 0;
-            for (int x = 0; x < SIZE; x++) {
-                if (gameBoard[x][y] != 0) {
-                    if (counter > 0 && gameBoard[counter - 1][y] == gameBoard[x][y] &&
-                            !mergedPositions.contains(new Point(counter - 1, y))) {
-                        gameBoard[counter - 1][y] *= 2;
-                        gameBoard[x][y] = 0;
-                        score += gameBoard[counter - 1][y];
-                        tilesCount--;
-                        mergedPositions.add(new Point(counter - 1, y));
-                    } else {
-                        gameBoard[counter][y] = gameBoard[x][y];
-                        if (counter != x) {
-                            gameBoard[x][y] = 0;
-                        }
-
-                        counter++;
-                    }
-                }
+    private void record() {
+        long[] state = history.state();
+        int words = state.length - 1;
+        for (int word = 0; word < words; word++) {
+            long packed = 0;
+            for (int i = 0, cell = word * 8; i < 8 && cell < gameBoard.length; i++, cell++) {
+                packed |= (long) Bitboard.toExponent(gameBoard[cell]) << (i * 8);
             }
+            state[word] = packed;
         }
+        state[words] = History.pack(score, moves);
+        history.record();
     }
 
-    private void moveRight() {
-        List<Point> mergedPositions = new ArrayList<>();
-        for (int y = SIZE - 1; y >= 0; y--) {
-            int counter = SIZE - 1;
-            for (int x = SIZE - 1; x >= 0; x--) {
-                if (gameBoard[x][y] != 0) {
-                    if (counter < SIZE - 1 && gameBoard[counter + 1][y] == gameBoard[x][y] &&
-                            !mergedPositions.contains(new Point(counter + 1, y))) {
-                        gameBoard[counter + 1][y] *= 2;
-                        gameBoard[x][y] = 0;
-                        score += gameBoard[counter + 1][y];
-                        tilesCount--;
-                        mergedPositions.add(new Point(counter + 1, y));
-                    } else {
-                        gameBoard[counter][y] = gameBoard[x][y];
-                        if (counter != x) {
-                            gameBoard[x][y] = 0;
-                        }
-                        counter--;
-                    }
-                }
-            }
+    public boolean undo() {
+        if (history == null || !history.undo()) {
+            return false;
+        }
+        load();
+        return true;
+    }
+
+    public boolean redo() {
+        if (history == null || !history.redo()) {
+            return false;
+        }
+        load();
+        return true;
+    }
+
+    private void load() {
+        long[] state = history.state();
+        maxTile = 0;
+        for (int cell = 0; cell < gameBoard.length; cell++) {
+            int value = Bitboard.toValue((int) (state[cell / 8] >>> (cell % 8 * 8)) & 0xFF);
+            setValue(cell, value);
+            maxTile = Math.max(maxTile, value);
         }
+        score = History.score(state[state.length - 1]);
+        moves = History.moves(state[state.length - 1]);
+        updateOver();
     }
 
-    private void moveUp() {
-        List<Point> mergedPositions = new ArrayList<>();
-        for (int x = 0; x < SIZE; x++) {
-            int counter = 0;
-            for (int y = 0; y < SIZE; y++) {
-                if (gameBoard[x][y] != 0) {
-                    if (counter > 0 && gameBoard[x][counter - 1] == gameBoard[x][y] &&
-                            !mergedPositions.contains(new Point(x, counter - 1))) {
-                        gameBoard[x][counter - 1] *= 2;
-                        gameBoard[x][y] = 0;
-                        score += gameBoard[x][counter - 1];
-                        tilesCount--;
-                        mergedPositions.add(new Point(x, counter - 1));
-                    } else {
-                        gameBoard[x][counter] = gameBoard[x][y];
-                        if (counter != y) {
-                            gameBoard[x][y] = 0;
-                        }
-                        counter++;
+    private void moveLine(int start, int step) {
+        int target = start;
+        boolean mergeable = false;
+        for (int i = 0, cell = start; i < size; i++, cell += step) {
+            if (gameBoard[cell] != 0) {
+                if (mergeable && gameBoard[target - step] == gameBoard[cell]) {
+                    gameBoard[target - step] *= 2;
+                    setValue(cell, 0);
+                    score += gameBoard[target - step];
+                    maxTile = Math.max(maxTile, gameBoard[target - step]);
+                    mergeable = false;
+                    changed = true;
+                } else {
+                    setValue(target, gameBoard[cell]);
+                    if (target != cell) {
+                        setValue(cell, 0);
+                        changed = true;
                     }
+                    mergeable = true;
+                    target += step;
                 }
             }
         }
     }
 
-    private void moveDown() {
-        List<Point> mergedPositions = new ArrayList<>();
-        for (int x = SIZE - 1; x >= 0; x--) {
-            int counter = SIZE - 1;
-            for (int y = SIZE - 1; y >= 0; y--) {
-                if (gameBoard[x][y] != 0) {
-                    if (counter < SIZE - 1 && gameBoard[x][counter + 1] == gameBoard[x][y] &&
-                            !mergedPositions.contains(new Point(x, counter + 1))) {
-                        gameBoard[x][counter + 1] *= 2;
-                        gameBoard[x][y] = 0;
-                        score += gameBoard[x][counter + 1];
-                        tilesCount--;
-                        mergedPositions.add(new Point(x, counter + 1));
-                    } else {
-                        gameBoard[x][counter] = gameBoard[x][y];
-                        if (counter != y) {
-                            gameBoard[x][y] = 0;
-                        }
-                        counter--;
-                    }
-                }
+    // the game can only be over once the board is full, so the neighbour scan is skipped otherwise
+    private void updateOver() {
+        over = emptyCells == 0 && !hasMergeableNeighbours();
+    }
+
+    private boolean hasMergeableNeighbours() {
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int cell = index(x, y);
+                if (x + 1 < size && gameBoard[cell] == gameBoard[cell + 1]) return true;
+                if (y + 1 < size && gameBoard[cell] == gameBoard[cell + size]) return true;
             }
         }
+        return false;
     }
 
     public int getMoves() {
@@ -170,39 +231,35 @@ public final class GameImpl implements Game {
         return score;
     }
 
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinTile() {
+        return winTile;
+    }
+
+    public int getHistoryDepth() {
+        return history == null ? 0 : history.getDepth();
+    }
+
     public int getValueAt(int x, int y) {
-        if (x < 0 || x >= SIZE) {
+        if (x < 0 || x >= size) {
             throw new IllegalArgumentException("x is invalid");
         }
-        if (y < 0 || y >= SIZE) {
+        if (y < 0 || y >= size) {
             throw new IllegalArgumentException("y is invalid");
         }
 
-        return gameBoard[x][y];
+        return gameBoard[index(x, y)];
     }
 
     public boolean isOver() {
-        for (int y = 0; y < SIZE; y++) {
-            for (int x = 0; x < SIZE; x++) {
-                if (gameBoard[x][y] == 0) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
+        return over;
     }
 
     public boolean isWon() {
-        for (int y = 0; y < SIZE; y++) {
-            for (int x = 0; x < SIZE; x++) {
-                if (gameBoard[x][y] == 2048) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return maxTile >= winTile;
     }
 
     @Override
@@ -214,12 +271,12 @@ public final class GameImpl implements Game {
         sb.append("\t\tScore: ");
         sb.append(score);
         sb.append("\n");
-        for (int y = 0; y < SIZE; y++) {
-            for (int x = 0; x < SIZE; x++) {
-                if (gameBoard[x][y] == 0) {
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (gameBoard[index(x, y)] == 0) {
                     sb.append(".\t\t");
                 } else {
-                    sb.append(gameBoard[x][y]);
+                    sb.append(gameBoard[index(x, y)]);
                     sb.append("\t\t");
                 }
             }
@@ -230,11 +287,10 @@ public final class GameImpl implements Game {
     }
 
     int getTilesCount() {
-        return tilesCount;
+        return size * size - Long.bitCount(emptyCells);
     }
 
-    int[][] getGameBoard() {
-        return gameBoard;
+    RandomSource getRandom() {
+        return random;
     }
 }
-
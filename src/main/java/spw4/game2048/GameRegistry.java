@@ -0,0 +1,169 @@
+package spw4.game2048;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+public final class GameRegistry implements GameStore {
+
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(24);
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private final ConcurrentHashMap<UUID, Session> games =
+            new ConcurrentHashMap<>(64, 0.75f, Runtime.getRuntime().availableProcessors());
+
+    private final int maxSize;
+    private final long timeToLive;
+    private final long idleTimeout;
+    private final LongSupplier clock;
+
+    private final LongAdder expiredEvictions = new LongAdder();
+    private final LongAdder capacityEvictions = new LongAdder();
+    private volatile Consumer<Game> removalListener = game -> { };
+
+    public GameRegistry() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public GameRegistry(int maxSize, Duration timeToLive, Duration idleTimeout) {
+        this(maxSize, timeToLive, idleTimeout, System::nanoTime);
+    }
+
+    GameRegistry(int maxSize, Duration timeToLive, Duration idleTimeout, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive.toNanos();
+        this.idleTimeout = idleTimeout.toNanos();
+        this.clock = clock;
+    }
+
+    public UUID add(Game game) {
+        UUID id = UUID.randomUUID();
+        add(id, game);
+        return id;
+    }
+
+    public void add(UUID id, Game game) {
+        games.put(id, new Session(game, clock.getAsLong()));
+
+        if (games.size() > maxSize) {
+            evictExpired();
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    public void setRemovalListener(Consumer<Game> removalListener) {
+        this.removalListener = removalListener;
+    }
+
+    public <T> T apply(UUID id, Function<Game, T> action) {
+        Session session = games.get(id);
+        long now = clock.getAsLong();
+        if (session == null) {
+            throw new GameExpiredException(id);
+        }
+        if (session.isExpired(now)) {
+            if (games.remove(id, session)) {
+                expiredEvictions.increment();
+                removalListener.accept(session.game);
+            }
+            throw new GameExpiredException(id);
+        }
+
+        session.lastAccess = now;
+        synchronized (session.game) {
+            return action.apply(session.game);
+        }
+    }
+
+    public void forEach(BiConsumer<UUID, Game> action) {
+        games.forEach((id, session) -> {
+            synchronized (session.game) {
+                action.accept(id, session.game);
+            }
+        });
+    }
+
+    public void evictExpired() {
+        long now = clock.getAsLong();
+        for (Map.Entry<UUID, Session> entry : games.entrySet()) {
+            if (entry.getValue().isExpired(now) && games.remove(entry.getKey(), entry.getValue())) {
+                expiredEvictions.increment();
+                removalListener.accept(entry.getValue().game);
+            }
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        int excess = games.size() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+
+        // evict down to 90% of the capacity, so a full registry does not scan on every add
+        long[] accessTimes = new long[games.size()];
+        int n = 0;
+        for (Session session : games.values()) {
+            if (n == accessTimes.length) break;
+            accessTimes[n++] = session.lastAccess;
+        }
+        Arrays.sort(accessTimes, 0, n);
+        int count = Math.min(excess + maxSize / 10, n);
+        if (count == 0) {
+            return;
+        }
+
+        long cutoff = accessTimes[count - 1];
+        for (Map.Entry<UUID, Session> entry : games.entrySet()) {
+            if (count > 0 && entry.getValue().lastAccess <= cutoff
+                    && games.remove(entry.getKey(), entry.getValue())) {
+                capacityEvictions.increment();
+                removalListener.accept(entry.getValue().game);
+                count--;
+            }
+        }
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getExpiredEvictions() {
+        return expiredEvictions.sum();
+    }
+
+    public long getCapacityEvictions() {
+        return capacityEvictions.sum();
+    }
+
+    private final class Session {
+        private final Game game;
+        private final long created;
+        private volatile long lastAccess;
+
+        private Session(Game game, long now) {
+            this.game = game;
+            this.created = now;
+            this.lastAccess = now;
+        }
+
+        private boolean isExpired(long now) {
+            return now - created > timeToLive || now - lastAccess > idleTimeout;
+        }
+    }
+}
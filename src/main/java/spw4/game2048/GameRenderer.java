@@ -0,0 +1,236 @@
+package spw4.game2048;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class GameRenderer {
+
+    private static final String TEMPLATE = ""
+            + "<!DOCTYPE html>\n"
+            + "<html lang=\"en\">\n"
+            + "<head>\n"
+            + "    <meta charset=\"UTF-8\">\n"
+            + "    <title>2048</title>\n"
+            + "    <link href=\"css/bootstrap.min.css\" rel=\"stylesheet\"/>\n"
+            + "    <link href=\"icons/bootstrap-icons.css\" rel=\"stylesheet\"/>\n"
+            + "    <script src=\"js/bootstrap.min.js\"></script>\n"
+            + "    <script src=\"js/live.js\" defer></script>\n"
+            + "</head>\n"
+            + "<body data-game=\"${id}\">\n"
+            + "    <h1 class=\"m-5 text-center\">Play 2048:</h1>\n"
+            + "\n"
+            + "    <div class=\"row\">\n"
+            + "        <div class=\"col-4\"></div>\n"
+            + "        <div class=\"col\">\n"
+            + "            <div class=\"row\">\n"
+            + "                <div class=\"col text-center pb-4\"><h5 id=\"moves\">Moves: ${moves}</h5></div>\n"
+            + "                <div class=\"col text-center pb-4\"><h5 id=\"score\">Score: ${score}</h5></div>\n"
+            + "            </div>\n"
+            + "${status}"
+            + "${hint}"
+            + "            <div class=\"row\">\n"
+            + "                <div class=\"col-2\"></div>\n"
+            + "                <div class=\"col text-center pb-4\"><a role=\"button\" class=\"btn btn-secondary\" href=\"Game?id=${id}&action=up\"><i class=\"bi-arrow-up\"></i></a></div>\n"
+            + "                <div class=\"col-2\"></div>\n"
+            + "            </div>\n"
+            + "            <div class=\"row\">\n"
+            + "                <div class=\"col-2 my-auto text-right\"><a role=\"button\" class=\"btn btn-secondary\" href=\"Game?id=${id}&action=left\"><i class=\"bi-arrow-left\"></i></a></div>\n"
+            + "                <div class=\"col\">\n"
+            + "                    <div class=\"container text-center bg-secondary\">\n"
+            + "${board}"
+            + "                    </div>\n"
+            + "                </div>\n"
+            + "                <div class=\"col-2 my-auto\"><a role=\"button\" class=\"btn btn-secondary\" href=\"Game?id=${id}&action=right\"><i class=\"bi-arrow-right\"></i></a></div>\n"
+            + "            </div>\n"
+            + "            <div class=\"row\">\n"
+            + "                <div class=\"col-2\"></div>\n"
+            + "                <div class=\"col text-center pt-4\"><a role=\"button\" class=\"btn btn-secondary\" href=\"Game?id=${id}&action=down\"><i class=\"bi-arrow-down\"></i></a></div>\n"
+            + "                <div class=\"col-2\"></div>\n"
+            + "            </div>\n"
+            + "            <div class=\"row\">\n"
+            + "                <div class=\"col text-center pt-4\"><a role=\"button\" class=\"btn btn-danger w-75\" href=\"Game?action=new${variant}\">New Game</a></div>\n"
+            + "                <div class=\"col text-center pt-4\"><a role=\"button\" class=\"btn btn-info w-75\" href=\"Game?id=${id}\">Refresh</a></div>\n"
+            + "                <div class=\"col text-center pt-4\"><a role=\"button\" class=\"btn btn-warning w-75\" href=\"Game?id=${id}&action=hint\">Hint</a></div>\n"
+            + "            </div>\n"
+            + "${history}"
+            + "        </div>\n"
+            + "        <div class=\"col-4\"></div>\n"
+            + "    </div>\n"
+            + "</body>\n"
+            + "</html>\n";
+
+    private static final byte[] WON = bytes(""
+            + "            <div class=\"row\">\n"
+            + "                <div class=\"col text-center pb-4\"><h1><span class=\"badge badge-success w-75\">YOU WIN</span></h1></div>\n"
+            + "            </div>\n");
+
+    private static final byte[] LOST = bytes(""
+            + "            <div class=\"row\">\n"
+            + "                <div class=\"col text-center pb-4\"><h1><span class=\"badge badge-danger w-75\">YOU LOSE</span></h1></div>\n"
+            + "            </div>\n");
+
+    // split around the two ids in the links
+    private static final byte[][] HISTORY = {
+            bytes(""
+                    + "            <div class=\"row\">\n"
+                    + "                <div class=\"col text-center pt-4\"><a role=\"button\" class=\"btn btn-outline-secondary w-75\" href=\"Game?id="),
+            bytes("&action=undo\"><i class=\"bi-arrow-counterclockwise\"></i> Undo</a></div>\n"
+                    + "                <div class=\"col text-center pt-4\"><a role=\"button\" class=\"btn btn-outline-secondary w-75\" href=\"Game?id="),
+            bytes("&action=redo\"><i class=\"bi-arrow-clockwise\"></i> Redo</a></div>\n"
+                    + "            </div>\n")};
+
+    private static final byte[] NONE = new byte[0];
+    private static final byte[] SIZE_PARAMETER = bytes("&size=");
+    private static final byte[] WIN_PARAMETER = bytes("&win=");
+
+    private static final byte[][] HINTS = new byte[Direction.values().length][];
+
+    static {
+        for (Direction direction : Direction.values()) {
+            HINTS[direction.ordinal()] = bytes(""
+                    + "            <div class=\"row\">\n"
+                    + "                <div class=\"col text-center pb-4\"><h5>Hint: <i class=\"bi-arrow-" + direction + "\"></i> " + direction + "</h5></div>\n"
+                    + "            </div>\n");
+        }
+    }
+
+    private enum Slot { MOVES, SCORE, STATUS, HINT, VARIANT, ID, HISTORY, CELL }
+
+    private static final GameRenderer[] INSTANCES = new GameRenderer[GameImpl.MAX_SIZE + 1];
+
+    static {
+        for (int size = GameImpl.MIN_SIZE; size <= GameImpl.MAX_SIZE; size++) {
+            INSTANCES[size] = new GameRenderer(size, TEMPLATE.replace("${board}", board(size)));
+        }
+    }
+
+    private final int size;
+    private final byte[][] segments;
+    private final Slot[] slots;
+
+    private GameRenderer(int size, String template) {
+        this.size = size;
+
+        List<byte[]> segmentList = new ArrayList<>();
+        List<Slot> slotList = new ArrayList<>();
+
+        int start = 0;
+        int open;
+        while ((open = template.indexOf("${", start)) >= 0) {
+            int close = template.indexOf('}', open);
+            segmentList.add(bytes(template.substring(start, open)));
+            slotList.add(Slot.valueOf(template.substring(open + 2, close).toUpperCase()));
+            start = close + 1;
+        }
+        segmentList.add(bytes(template.substring(start)));
+
+        segments = segmentList.toArray(new byte[0][]);
+        slots = slotList.toArray(new Slot[0]);
+    }
+
+    public static GameRenderer getInstance() {
+        return getInstance(Game.DEFAULT_SIZE);
+    }
+
+    public static GameRenderer getInstance(int size) {
+        if (size < GameImpl.MIN_SIZE || size > GameImpl.MAX_SIZE) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        return INSTANCES[size];
+    }
+
+    public void render(UUID id, Game game, OutputStream out) throws IOException {
+        render(id, game, null, out);
+    }
+
+    public void render(UUID id, Game game, Direction hint, OutputStream out) throws IOException {
+        if (game.getSize() != size) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+
+        byte[] digits = new byte[11];
+        byte[] idBytes = null;
+        boolean over = game.isOver();
+        byte[] status = over ? (game.isWon() ? WON : LOST) : NONE;
+        int cell = 0;
+
+        for (int i = 0; i < slots.length; i++) {
+            out.write(segments[i]);
+            switch (slots[i]) {
+                case MOVES -> writeInt(out, digits, game.getMoves());
+                case SCORE -> writeInt(out, digits, game.getScore());
+                case STATUS -> out.write(status);
+                case HINT -> out.write(hint == null ? NONE : HINTS[hint.ordinal()]);
+                case VARIANT -> {
+                    // the new game link keeps the variant of the current game
+                    if (size != Game.DEFAULT_SIZE || game.getWinTile() != Game.DEFAULT_WIN_TILE) {
+                        out.write(SIZE_PARAMETER);
+                        writeInt(out, digits, size);
+                        out.write(WIN_PARAMETER);
+                        writeInt(out, digits, game.getWinTile());
+                    }
+                }
+                case ID -> {
+                    if (idBytes == null) {
+                        idBytes = bytes(id.toString());
+                    }
+                    out.write(idBytes);
+                }
+                case HISTORY -> {
+                    if (game.getHistoryDepth() > 0) {
+                        if (idBytes == null) {
+                            idBytes = bytes(id.toString());
+                        }
+                        out.write(HISTORY[0]);
+                        out.write(idBytes);
+                        out.write(HISTORY[1]);
+                        out.write(idBytes);
+                        out.write(HISTORY[2]);
+                    }
+                }
+                case CELL -> {
+                    writeInt(out, digits, game.getValueAt(cell / size, cell % size));
+                    cell++;
+                }
+            }
+        }
+        out.write(segments[slots.length]);
+    }
+
+    private static void writeInt(OutputStream out, byte[] digits, int value) throws IOException {
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        out.write(digits, position, digits.length - position);
+    }
+
+    private static String board(int size) {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < size; row++) {
+            sb.append("                        <div class=\"row\">\n");
+            for (int column = 0; column < size; column++) {
+                sb.append("                            <div class=\"col mt-1 ml-1 ");
+                if (row == size - 1) sb.append("mb-1 ");
+                if (column == size - 1) sb.append("mr-1 ");
+                sb.append("bg-light\">${cell}</div>\n");
+            }
+            sb.append("                        </div>\n");
+        }
+        return sb.toString();
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
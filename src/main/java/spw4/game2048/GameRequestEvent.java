@@ -0,0 +1,26 @@
+package spw4.game2048;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One request or WebSocket message in a flight recording, e.g.
+// jcmd <pid> JFR.start settings=profile filename=game2048.jfr
+// Committing is a no-op unless a recording enables the event.
+@Name("spw4.game2048.GameRequest")
+@Label("Game Request")
+@Category("2048")
+@Description("An action on a game, from the lookup to the written response")
+final class GameRequestEvent extends Event {
+
+    @Label("Action")
+    String action;
+
+    @Label("Board Size")
+    int size;
+
+    @Label("Changed")
+    boolean changed;
+}
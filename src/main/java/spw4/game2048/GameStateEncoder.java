@@ -0,0 +1,115 @@
+package spw4.game2048;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+public final class GameStateEncoder {
+
+    public static final String JSON_CONTENT_TYPE = "application/json;charset=UTF-8";
+    public static final String BINARY_CONTENT_TYPE = "application/octet-stream";
+
+    private static final int STATUS_OVER = 1;
+    private static final int STATUS_WON = 2;
+
+    private GameStateEncoder() {
+    }
+
+    public static byte[] toJson(UUID id, Game game) {
+        int size = game.getSize();
+        StringBuilder sb = new StringBuilder(64 + 8 * size * size);
+
+        sb.append("{\"id\":\"").append(id).append("\",\"board\":[");
+        for (int y = 0; y < size; y++) {
+            if (y > 0) sb.append(',');
+            sb.append('[');
+            for (int x = 0; x < size; x++) {
+                if (x > 0) sb.append(',');
+                sb.append(game.getValueAt(x, y));
+            }
+            sb.append(']');
+        }
+        sb.append("],\"score\":").append(game.getScore());
+        sb.append(",\"moves\":").append(game.getMoves());
+        sb.append(",\"over\":").append(game.isOver());
+        sb.append(",\"won\":").append(game.isWon());
+        sb.append('}');
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // id, size, board, score, moves and status; the 4x4 board packs two exponents per byte, which the
+    // bitboard engine never exceeds, every other size can hold tiles of 65536 and up and takes a byte per cell
+    public static byte[] toBinary(UUID id, Game game) {
+        int size = game.getSize();
+        int cells = size * size;
+        boolean packed = size == Bitboard.SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(16 + 1 + (packed ? cells / 2 : cells) + 4 + 4 + 1);
+
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        buffer.put((byte) size);
+        if (packed) {
+            for (int cell = 0; cell < cells; cell += 2) {
+                int low = nibble(game, cell % size, cell / size);
+                int high = nibble(game, (cell + 1) % size, (cell + 1) / size);
+                buffer.put((byte) (high << 4 | low));
+            }
+        } else {
+            for (int cell = 0; cell < cells; cell++) {
+                buffer.put((byte) Bitboard.toExponent(game.getValueAt(cell % size, cell / size)));
+            }
+        }
+        buffer.putInt(game.getScore());
+        buffer.putInt(game.getMoves());
+        buffer.put(status(game));
+
+        return buffer.array();
+    }
+
+    // only a 4x4 game on the generic engine, with a win tile above 32768, gets past exponent 15
+    private static int nibble(Game game, int x, int y) {
+        int exponent = Bitboard.toExponent(game.getValueAt(x, y));
+        if (exponent > Bitboard.MAX_EXPONENT) {
+            throw new IllegalStateException("tile " + game.getValueAt(x, y) + " does not fit the 4x4 binary format");
+        }
+        return exponent;
+    }
+
+    // status, score, moves and the number of changed cells, followed by index (y * size + x) and
+    // exponent of every cell that differs from sent; sent is updated to the current exponents
+    public static ByteBuffer toDiff(Game game, byte[] sent) {
+        int size = game.getSize();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 4 + 1 + 2 * size * size);
+
+        buffer.put(status(game));
+        buffer.putInt(game.getScore());
+        buffer.putInt(game.getMoves());
+        int countPosition = buffer.position();
+        buffer.put((byte) 0);
+        int changed = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int cell = y * size + x;
+                byte exponent = (byte) Bitboard.toExponent(game.getValueAt(x, y));
+                if (sent[cell] != exponent) {
+                    sent[cell] = exponent;
+                    buffer.put((byte) cell);
+                    buffer.put(exponent);
+                    changed++;
+                }
+            }
+        }
+        buffer.put(countPosition, (byte) changed);
+
+        return buffer.flip();
+    }
+
+    private static byte status(Game game) {
+        return (byte) ((game.isOver() ? STATUS_OVER : 0) | (game.isWon() ? STATUS_WON : 0));
+    }
+
+    public static byte[] error(String message) {
+        return ("{\"error\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+}
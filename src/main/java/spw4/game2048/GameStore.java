@@ -0,0 +1,33 @@
+package spw4.game2048;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Sessions keyed by id that expire after a time to live or an idle timeout and are evicted
+// least recently used first once the store is full. Actions on the same game never overlap.
+public interface GameStore {
+
+    UUID add(Game game);
+
+    void add(UUID id, Game game);
+
+    // called with every game that leaves the store
+    void setRemovalListener(Consumer<Game> removalListener);
+
+    <T> T apply(UUID id, Function<Game, T> action);
+
+    // visits every game while holding its lock, like apply but without touching it
+    void forEach(BiConsumer<UUID, Game> action);
+
+    void evictExpired();
+
+    int size();
+
+    int getMaxSize();
+
+    long getExpiredEvictions();
+
+    long getCapacityEvictions();
+}
@@ -0,0 +1,89 @@
+package spw4.game2048;
+
+// Bounded undo/redo history of packed game states. The states live in a ring buffer of
+// depth + 1 entries, each the packed board followed by score and moves in one long.
+// The cursor marks the current state: recording a state drops the states after the cursor
+// and, once the ring is full, the oldest one. Games pack into and unpack from state().
+final class History {
+
+    static final int DEFAULT_DEPTH = 16;
+
+    private final int depth;
+    private final int width;
+    private final long[] entries;
+    private final long[] state;
+    private int oldest;
+    private int count;
+    private int cursor = -1;
+
+    private History(int depth, int boardWords) {
+        this.depth = depth;
+        this.width = boardWords + 1;
+        entries = new long[(depth + 1) * width];
+        state = new long[width];
+    }
+
+    // a depth of zero disables the history
+    static History create(int depth, int boardWords) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("history depth is invalid");
+        }
+        return depth == 0 ? null : new History(depth, boardWords);
+    }
+
+    long[] state() {
+        return state;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    void record() {
+        if (cursor == depth) {
+            oldest = (oldest + 1) % (depth + 1);
+            cursor--;
+        }
+        cursor++;
+        count = cursor + 1;
+        System.arraycopy(state, 0, entries, index(cursor), width);
+    }
+
+    boolean undo() {
+        if (cursor <= 0) {
+            return false;
+        }
+        cursor--;
+        System.arraycopy(entries, index(cursor), state, 0, width);
+        return true;
+    }
+
+    boolean redo() {
+        if (cursor + 1 >= count) {
+            return false;
+        }
+        cursor++;
+        System.arraycopy(entries, index(cursor), state, 0, width);
+        return true;
+    }
+
+    private int index(int offset) {
+        return (oldest + offset) % (depth + 1) * width;
+    }
+
+    static long pack(int score, int moves) {
+        return (long) score << 32 | (moves & 0xFFFFFFFFL);
+    }
+
+    static int score(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    static int moves(long packed) {
+        return (int) packed;
+    }
+}
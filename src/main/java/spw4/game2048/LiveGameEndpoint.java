@@ -0,0 +1,122 @@
+package spw4.game2048;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpointConfig;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// Plays one game over a WebSocket at /live?id=<game> instead of a page load per move.
+// The client sends one byte per action, a Direction ordinal or UNDO / REDO, and gets back
+// the cells that changed together with status, score and moves, see GameStateEncoder.toDiff.
+// The first message after connecting holds every cell.
+public class LiveGameEndpoint extends Endpoint {
+
+    static final String PATH = "/live";
+    static final byte UNDO = 4;
+    static final byte REDO = 5;
+
+    // 4410 mirrors the 410 Gone of the servlets
+    private static final CloseReason GONE =
+            new CloseReason(CloseReason.CloseCodes.getCloseCode(4410), "game expired");
+    private static final CloseReason INVALID =
+            new CloseReason(CloseReason.CloseCodes.CANNOT_ACCEPT, "invalid request");
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final GameStore games;
+    private final Metrics metrics;
+    private UUID id;
+    // the exponents the client shows; messages of a session are handled one at a time
+    private byte[] sent;
+
+    LiveGameEndpoint(GameStore games, Metrics metrics) {
+        this.games = games;
+        this.metrics = metrics;
+    }
+
+    static ServerEndpointConfig config(GameStore games, Metrics metrics) {
+        return ServerEndpointConfig.Builder.create(LiveGameEndpoint.class, PATH)
+                .configurator(new ServerEndpointConfig.Configurator() {
+                    @Override
+                    public <T> T getEndpointInstance(Class<T> endpointClass) {
+                        return endpointClass.cast(new LiveGameEndpoint(games, metrics));
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        List<String> ids = session.getRequestParameterMap().get("id");
+        try {
+            id = UUID.fromString(ids == null || ids.isEmpty() ? "" : ids.get(0));
+            int size = games.apply(id, Game::getSize);
+            sent = new byte[size * size];
+            Arrays.fill(sent, (byte) -1);
+        } catch (GameExpiredException e) {
+            close(session, GONE);
+            return;
+        } catch (IllegalArgumentException e) {
+            close(session, INVALID);
+            return;
+        }
+
+        session.addMessageHandler(ByteBuffer.class, actions -> play(session, actions));
+        play(session, ByteBuffer.allocate(0));
+    }
+
+    private void play(Session session, ByteBuffer actions) {
+        metrics.liveMessage();
+        GameRequestEvent event = new GameRequestEvent();
+        event.begin();
+        event.action = "live";
+        ByteBuffer update;
+        try {
+            update = metrics.apply(games, id, game -> {
+                event.size = game.getSize();
+                while (actions.hasRemaining()) {
+                    byte action = actions.get();
+                    if (action == UNDO) {
+                        metrics.undo(game);
+                    } else if (action == REDO) {
+                        metrics.redo(game);
+                    } else if (action >= 0 && action < DIRECTIONS.length) {
+                        if (!game.isOver()) {
+                            metrics.move(game, DIRECTIONS[action]);
+                        }
+                    } else {
+                        throw new IllegalArgumentException("action is invalid");
+                    }
+                }
+                return GameStateEncoder.toDiff(game, sent);
+            });
+        } catch (GameExpiredException e) {
+            close(session, GONE);
+            return;
+        } catch (IllegalArgumentException e) {
+            close(session, INVALID);
+            return;
+        } finally {
+            event.commit();
+        }
+
+        try {
+            session.getBasicRemote().sendBinary(update);
+        } catch (IOException e) {
+            close(session, new CloseReason(CloseReason.CloseCodes.UNEXPECTED_CONDITION, "send failed"));
+        }
+    }
+
+    private static void close(Session session, CloseReason reason) {
+        try {
+            session.close(reason);
+        } catch (IOException e) {
+            // the connection is gone already
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package spw4.game2048;
+
+// appends every move that changed the board and the state after every undo and redo to the
+// move log; callers serialize moves per game
+final class LoggedGame implements Game {
+
+    private final Game game;
+    private final int ordinal;
+    private final MoveLog log;
+    // guarded by the log
+    private boolean removed;
+
+    LoggedGame(Game game, int ordinal, MoveLog log) {
+        this.game = game;
+        this.ordinal = ordinal;
+        this.log = log;
+    }
+
+    // does nothing: MoveLog.track takes the game initialized, and its creation record replays the first tiles
+    public void initialize() {
+    }
+
+    public long move(Direction direction) {
+        long result = game.move(direction);
+        if (MoveResult.changed(result)) {
+            log.append(this, direction);
+        }
+        return result;
+    }
+
+    public boolean undo() {
+        boolean undone = game.undo();
+        if (undone) {
+            log.appendState(this, game);
+        }
+        return undone;
+    }
+
+    public boolean redo() {
+        boolean redone = game.redo();
+        if (redone) {
+            log.appendState(this, game);
+        }
+        return redone;
+    }
+
+    public int getMoves() {
+        return game.getMoves();
+    }
+
+    public int getScore() {
+        return game.getScore();
+    }
+
+    public int getSize() {
+        return game.getSize();
+    }
+
+    public int getWinTile() {
+        return game.getWinTile();
+    }
+
+    public int getHistoryDepth() {
+        return game.getHistoryDepth();
+    }
+
+    public int getValueAt(int x, int y) {
+        return game.getValueAt(x, y);
+    }
+
+    public boolean isOver() {
+        return game.isOver();
+    }
+
+    public boolean isWon() {
+        return game.isWon();
+    }
+
+    @Override
+    public String toString() {
+        return game.toString();
+    }
+
+    Game getGame() {
+        return game;
+    }
+
+    int getOrdinal() {
+        return ordinal;
+    }
+
+    MoveLog getLog() {
+        return log;
+    }
+
+    boolean isRemoved() {
+        return removed;
+    }
+
+    void markRemoved() {
+        removed = true;
+    }
+}
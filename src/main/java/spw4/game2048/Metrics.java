@@ -0,0 +1,198 @@
+package spw4.game2048;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Counters and latency histograms for the hot paths, published at /metrics. Every move,
+// render and lookup is counted, but only one in SAMPLE_RATE is timed: reading the clock costs
+// tens of nanoseconds on virtualized hosts, more than a move, and timing every call added
+// about 15% to a request in MetricsBenchmark.
+public final class Metrics {
+
+    static final int SAMPLE_RATE = 64;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder unchangedMoves = new LongAdder();
+    private final LongAdder undos = new LongAdder();
+    private final LongAdder redos = new LongAdder();
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder gamesCreated = new LongAdder();
+    private final LongAdder hints = new LongAdder();
+    private final LongAdder liveMessages = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LatencyHistogram renderLatency = new LatencyHistogram();
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+
+    public long move(Game game, Direction direction) {
+        long result;
+        if (sampled()) {
+            long start = System.nanoTime();
+            result = game.move(direction);
+            moveLatency.record(System.nanoTime() - start);
+        } else {
+            result = game.move(direction);
+        }
+        moves.increment();
+        if (!MoveResult.changed(result)) {
+            unchangedMoves.increment();
+        }
+        return result;
+    }
+
+    public boolean undo(Game game) {
+        undos.increment();
+        return game.undo();
+    }
+
+    public boolean redo(Game game) {
+        redos.increment();
+        return game.redo();
+    }
+
+    // the lookup latency covers finding the game and waiting for its lock
+    public <T> T apply(GameStore games, UUID id, Function<Game, T> action) {
+        if (!sampled()) {
+            return games.apply(id, action);
+        }
+        long start = System.nanoTime();
+        return games.apply(id, game -> {
+            lookupLatency.record(System.nanoTime() - start);
+            return action.apply(game);
+        });
+    }
+
+    public void render(UUID id, Game game, Direction hint, OutputStream out) throws IOException {
+        GameRenderer renderer = GameRenderer.getInstance(game.getSize());
+        if (sampled()) {
+            long start = System.nanoTime();
+            renderer.render(id, game, hint, out);
+            renderLatency.record(System.nanoTime() - start);
+        } else {
+            renderer.render(id, game, hint, out);
+        }
+        renders.increment();
+    }
+
+    public void gameCreated() {
+        gamesCreated.increment();
+    }
+
+    public void hint() {
+        hints.increment();
+    }
+
+    public void liveMessage() {
+        liveMessages.increment();
+    }
+
+    public void error() {
+        errors.increment();
+    }
+
+    private static boolean sampled() {
+        return ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0;
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    public long getUnchangedMoves() {
+        return unchangedMoves.sum();
+    }
+
+    public long getUndos() {
+        return undos.sum();
+    }
+
+    public long getRedos() {
+        return redos.sum();
+    }
+
+    public long getRenders() {
+        return renders.sum();
+    }
+
+    public long getGamesCreated() {
+        return gamesCreated.sum();
+    }
+
+    public long getHints() {
+        return hints.sum();
+    }
+
+    public long getLiveMessages() {
+        return liveMessages.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    public LatencyHistogram getRenderLatency() {
+        return renderLatency;
+    }
+
+    public LatencyHistogram getLookupLatency() {
+        return lookupLatency;
+    }
+
+    // the Prometheus text format, latencies in seconds
+    public void write(PrintWriter out, GameStore games) {
+        counter(out, "game2048_moves_total", "Moves played", getMoves());
+        counter(out, "game2048_unchanged_moves_total", "Moves that left the board unchanged",
+                getUnchangedMoves());
+        counter(out, "game2048_undos_total", "Undo requests", getUndos());
+        counter(out, "game2048_redos_total", "Redo requests", getRedos());
+        counter(out, "game2048_renders_total", "Pages rendered", getRenders());
+        counter(out, "game2048_games_created_total", "Games started", getGamesCreated());
+        counter(out, "game2048_hints_total", "Hints computed", getHints());
+        counter(out, "game2048_live_messages_total", "WebSocket messages handled", getLiveMessages());
+        counter(out, "game2048_errors_total", "Requests that failed unexpectedly", getErrors());
+        counter(out, "game2048_expired_evictions_total", "Games removed after their time to live or idle timeout",
+                games.getExpiredEvictions());
+        counter(out, "game2048_capacity_evictions_total", "Games removed to make room for new ones",
+                games.getCapacityEvictions());
+
+        out.println("# HELP game2048_sessions Games currently held");
+        out.println("# TYPE game2048_sessions gauge");
+        out.println("game2048_sessions " + games.size());
+
+        summary(out, "game2048_move_latency_seconds", "Game.move, sampled", getMoveLatency());
+        summary(out, "game2048_render_latency_seconds", "Rendering a page", getRenderLatency());
+        summary(out, "game2048_lookup_latency_seconds", "Finding and locking a game", getLookupLatency());
+        out.flush();
+    }
+
+    private static void counter(PrintWriter out, String name, String help, long value) {
+        out.println("# HELP " + name + " " + help);
+        out.println("# TYPE " + name + " counter");
+        out.println(name + " " + value);
+    }
+
+    private static void summary(PrintWriter out, String name, String help, LatencyHistogram histogram) {
+        out.println("# HELP " + name + " " + help);
+        out.println("# TYPE " + name + " summary");
+        long[] values = histogram.quantiles(QUANTILES);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            out.println(name + "{quantile=\"" + QUANTILES[i] + "\"} " + seconds(values[i]));
+        }
+        out.println(name + "_sum " + seconds(histogram.getSum()));
+        out.println(name + "_count " + histogram.getCount());
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+}
@@ -0,0 +1,28 @@
+package spw4.game2048;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// The counters and latencies of Metrics for a Prometheus scraper.
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+    private GameStore games;
+    private Metrics metrics;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        games = GameContextListener.getRegistry(getServletContext());
+        metrics = GameContextListener.getMetrics(getServletContext());
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        response.setContentType("text/plain;version=0.0.4;charset=UTF-8");
+        metrics.write(response.getWriter(), games);
+    }
+}
@@ -0,0 +1,480 @@
+package spw4.game2048;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+// Append-only log of game creations and moves, split into numbered segment files.
+// A game is stored as its seed and variant plus one int per changed move, so replaying
+// the records rebuilds every game exactly. Undo and redo log the whole resulting state,
+// since the history itself is not persisted. Appends are buffered in memory and written
+// out by flush(), which also forces the segments to disk; a crash loses at most the
+// records since the last flush. Ordinals of removed games are handed out again, so they
+// stay below the peak number of live games. A position is the segment number in the upper and the
+// byte offset in the lower 32 bits; see Snapshotter for how snapshots shorten replay.
+public final class MoveLog implements Closeable {
+
+    static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+    static final int MAX_GAMES = 1 << 29;
+
+    private static final int MAGIC = 0x32303438;
+    private static final String PREFIX = "moves-";
+    private static final String SUFFIX = ".log";
+
+    // moves are ordinal << 2 | direction and therefore never negative
+    private static final int CREATE = -1;
+    private static final int REMOVE = -2;
+    private static final int STATE = -3;
+    private static final int CREATE_BYTES = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 4;
+    private static final int STATE_BYTES = 4 + 4 + 4 + 4 + 4;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(256 << 10);
+    private final List<FileChannel> retired = new ArrayList<>();
+    // held shared from logging a creation until the game is registered, exclusively by rollover
+    private final ReadWriteLock registrations = new ReentrantReadWriteLock();
+    private FileChannel segment;
+    private long segmentNumber;
+    private long written;
+    private long nextSegment;
+    private int nextOrdinal;
+    // removed ordinals, the lowest on top
+    private int[] free = new int[64];
+    private int freeCount;
+    private boolean closed;
+
+    public MoveLog(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    MoveLog(Path directory, int segmentBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+
+        // segments before the latest snapshot may already be deleted, so never number below it
+        List<Path> segments = files(directory, PREFIX, SUFFIX);
+        Path snapshot = Snapshotter.latest(directory);
+        nextSegment = Math.max(
+                segments.isEmpty() ? 0 : number(segments.get(segments.size() - 1), PREFIX, SUFFIX) + 1,
+                snapshot == null ? 0 : Snapshotter.number(snapshot));
+    }
+
+    // rebuilds every game that was created and not removed; call once before appending.
+    // Games start from the latest snapshot and only replay the records written after
+    // they were captured. Every worker scans all remaining segments but only replays
+    // the games of its own partition.
+    public synchronized int replay(BiConsumer<UUID, Game> restored) throws IOException {
+        int partitions = Runtime.getRuntime().availableProcessors();
+        Partition[] replayed = new Partition[partitions];
+        for (int i = 0; i < partitions; i++) {
+            replayed[i] = new Partition(i, partitions);
+        }
+
+        long start = 0;
+        Path snapshot = Snapshotter.latest(directory);
+        if (snapshot != null) {
+            start = Snapshotter.number(snapshot);
+            int limit = Snapshotter.read(snapshot, (ordinal, id, position, game) ->
+                    replayed[ordinal % partitions].put(ordinal, id, position, game));
+            for (Partition partition : replayed) {
+                partition.limit = limit;
+            }
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        for (Path path : files(directory, PREFIX, SUFFIX)) {
+            long number = number(path, PREFIX, SUFFIX);
+            // a segment can be empty if the process died before its first flush
+            if (number >= start && number < nextSegment && Files.size(path) > 0) {
+                segments.add(new Segment(number, map(path)));
+            }
+        }
+
+        try {
+            Arrays.stream(replayed).parallel().forEach(partition -> partition.replay(segments));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        for (Partition partition : replayed) {
+            nextOrdinal = Math.max(nextOrdinal, partition.limit);
+        }
+        int count = 0;
+        boolean[] live = new boolean[nextOrdinal];
+        for (Partition partition : replayed) {
+            for (int slot = 0; slot < partition.games.length; slot++) {
+                if (partition.games[slot] != null) {
+                    int ordinal = slot * partitions + partition.index;
+                    restored.accept(partition.ids[slot], new LoggedGame(partition.games[slot], ordinal, this));
+                    live[ordinal] = true;
+                    count++;
+                }
+            }
+        }
+        for (int ordinal = nextOrdinal - 1; ordinal >= 0; ordinal--) {
+            if (!live[ordinal]) {
+                release(ordinal);
+            }
+        }
+        return count;
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (records.remaining() < 4 || records.getInt(0) != MAGIC) {
+                throw new IOException("not a move log segment: " + path);
+            }
+            return records;
+        }
+    }
+
+    // records a freshly initialized game created from the seed and passes the game that logs its moves
+    // to register, e.g. GameStore::add. A snapshot only rolls the log over between the two, so a game
+    // whose creation lies before the snapshot's first segment is always in the store it captures.
+    public Game track(UUID id, long seed, Game game, BiConsumer<UUID, Game> register) {
+        registrations.readLock().lock();
+        try {
+            Game logged = track(id, seed, game);
+            register.accept(id, logged);
+            return logged;
+        } finally {
+            registrations.readLock().unlock();
+        }
+    }
+
+    // for games no snapshot has to capture
+    synchronized Game track(UUID id, long seed, Game game) {
+        if (freeCount == 0 && nextOrdinal == MAX_GAMES) {
+            throw new IllegalStateException("move log is full");
+        }
+
+        // reserve before taking the ordinal, so a closed log does not lose it
+        ByteBuffer record = reserve(CREATE_BYTES);
+        int ordinal = freeCount > 0 ? free[--freeCount] : nextOrdinal++;
+        record.putInt(CREATE);
+        record.putInt(ordinal);
+        record.putLong(id.getMostSignificantBits());
+        record.putLong(id.getLeastSignificantBits());
+        record.putLong(seed);
+        record.putInt(game.getSize());
+        record.putInt(game.getWinTile());
+        record.putInt(game.getHistoryDepth());
+        return new LoggedGame(game, ordinal, this);
+    }
+
+    // a removed game may still be moved by a request that looked it up before, and its ordinal
+    // may already belong to another game, so its records are dropped
+    synchronized void append(LoggedGame game, Direction direction) {
+        if (!game.isRemoved()) {
+            reserve(4).putInt(game.getOrdinal() << 2 | direction.ordinal());
+        }
+    }
+
+    // one exponent per cell, row by row
+    synchronized void appendState(LoggedGame logged, Game game) {
+        if (logged.isRemoved()) {
+            return;
+        }
+        int ordinal = logged.getOrdinal();
+        int size = game.getSize();
+        ByteBuffer record = reserve(STATE_BYTES + size * size);
+        record.putInt(STATE);
+        record.putInt(ordinal);
+        record.putInt(game.getScore());
+        record.putInt(game.getMoves());
+        record.putInt(size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                record.put((byte) Bitboard.toExponent(game.getValueAt(x, y)));
+            }
+        }
+    }
+
+    public synchronized void remove(Game game) {
+        if (game instanceof LoggedGame logged && logged.getLog() == this && !logged.isRemoved()) {
+            ByteBuffer record = reserve(8);
+            record.putInt(REMOVE);
+            record.putInt(logged.getOrdinal());
+            logged.markRemoved();
+            release(logged.getOrdinal());
+        }
+    }
+
+    private void release(int ordinal) {
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, free.length * 2);
+        }
+        free[freeCount++] = ordinal;
+    }
+
+    private ByteBuffer reserve(int bytes) {
+        if (closed) {
+            throw new IllegalStateException("move log is closed");
+        }
+
+        try {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+            if (segment == null) {
+                segmentNumber = nextSegment++;
+                Path path = directory.resolve(String.format("%s%016d%s", PREFIX, segmentNumber, SUFFIX));
+                segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                written = 0;
+                buffer.putInt(MAGIC);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer;
+    }
+
+    // writes the buffer to the current segment and starts a new segment once it is full
+    private void drain() throws IOException {
+        if (segment == null) {
+            return;
+        }
+
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += segment.write(buffer);
+        }
+        buffer.clear();
+
+        if (written >= segmentBytes) {
+            retire();
+        }
+    }
+
+    private void retire() {
+        retired.add(segment);
+        segment = null;
+    }
+
+    // position of the next record; everything appended before has a lower position
+    synchronized long position() {
+        return segment == null ? nextSegment << 32 : segmentNumber << 32 | (written + buffer.position());
+    }
+
+    // closes the current segment, so the next record starts a new one; returns its position.
+    // Waits for games being tracked to be registered, and takes the lock before the monitor like track.
+    long rollover() throws IOException {
+        registrations.writeLock().lock();
+        try {
+            synchronized (this) {
+                drain();
+                if (segment != null) {
+                    retire();
+                }
+                return nextSegment << 32;
+            }
+        } finally {
+            registrations.writeLock().unlock();
+        }
+    }
+
+    synchronized int getNextOrdinal() {
+        return nextOrdinal;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    // drops the segments a snapshot has made obsolete
+    void deleteBefore(long segmentNumber) throws IOException {
+        for (Path path : files(directory, PREFIX, SUFFIX)) {
+            if (number(path, PREFIX, SUFFIX) < segmentNumber) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    // group commit: appenders only wait for the buffer copy, the fsync runs outside the lock
+    public void flush() throws IOException {
+        FileChannel current;
+        List<FileChannel> full;
+        synchronized (this) {
+            drain();
+            current = segment;
+            full = new ArrayList<>(retired);
+            retired.clear();
+        }
+
+        for (FileChannel channel : full) {
+            channel.force(false);
+            channel.close();
+        }
+        if (current != null) {
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // closed concurrently, which forces it as well
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        drain();
+        closed = true;
+        if (segment != null) {
+            retire();
+        }
+        for (FileChannel channel : retired) {
+            channel.force(false);
+            channel.close();
+        }
+        retired.clear();
+    }
+
+    static List<Path> files(Path directory, String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static long number(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private record Segment(long number, ByteBuffer records) {
+    }
+
+    private static final class Partition {
+        private static final Direction[] DIRECTIONS = Direction.values();
+
+        private final int index;
+        private final int count;
+        private Game[] games = new Game[1024];
+        private UUID[] ids = new UUID[1024];
+        // moves of a game from a snapshot only apply from the position it was captured at
+        private long[] captured = new long[1024];
+        // one past the highest ordinal seen in any partition
+        private int limit;
+
+        private Partition(int index, int count) {
+            this.index = index;
+            this.count = count;
+        }
+
+        private void replay(List<Segment> segments) {
+            for (Segment segment : segments) {
+                replay(segment.number() << 32, segment.records().duplicate().position(4));
+            }
+        }
+
+        // a record cut off by a crash can only be the last one of a segment
+        private void replay(long base, ByteBuffer records) {
+            while (records.remaining() >= 4) {
+                long position = base | records.position();
+                int record = records.getInt();
+                if (record >= 0) {
+                    int ordinal = record >>> 2;
+                    if (ordinal % count == index) {
+                        int slot = ordinal / count;
+                        if (slot < games.length && games[slot] != null && position >= captured[slot]) {
+                            games[slot].move(DIRECTIONS[record & 3]);
+                        }
+                    }
+                } else if (record == CREATE) {
+                    if (records.remaining() < CREATE_BYTES - 4) break;
+
+                    int ordinal = records.getInt();
+                    limit = Math.max(limit, ordinal + 1);
+                    int slot = ordinal / count;
+                    // the snapshot may already hold a game created after it started
+                    if (ordinal % count != index || slot < games.length && games[slot] != null) {
+                        records.position(records.position() + CREATE_BYTES - 8);
+                        continue;
+                    }
+                    UUID id = new UUID(records.getLong(), records.getLong());
+                    long seed = records.getLong();
+                    int size = records.getInt();
+                    int winTile = records.getInt();
+                    int historyDepth = records.getInt();
+                    Game game = Game.create(size, winTile, historyDepth, new SplitMixRandom(seed));
+                    game.initialize();
+                    put(ordinal, id, 0, game);
+                } else if (record == STATE) {
+                    if (records.remaining() < STATE_BYTES - 4) break;
+
+                    int ordinal = records.getInt();
+                    int score = records.getInt();
+                    int moves = records.getInt();
+                    int size = records.getInt();
+                    if (records.remaining() < size * size) break;
+
+                    int slot = ordinal / count;
+                    if (ordinal % count != index || slot >= games.length || games[slot] == null
+                            || position < captured[slot]) {
+                        records.position(records.position() + size * size);
+                        continue;
+                    }
+                    int[][] board = new int[size][size];
+                    for (int y = 0; y < size; y++) {
+                        for (int x = 0; x < size; x++) {
+                            board[x][y] = Bitboard.toValue(records.get());
+                        }
+                    }
+                    Game game = games[slot];
+                    games[slot] = Snapshotter.restore(board, game.getWinTile(), game.getHistoryDepth(),
+                            score, moves, Snapshotter.random(game));
+                } else if (record == REMOVE) {
+                    if (records.remaining() < 4) break;
+
+                    // a game from the snapshot may reuse the ordinal of a game removed before its capture
+                    int ordinal = records.getInt();
+                    int slot = ordinal / count;
+                    if (ordinal % count == index && slot < games.length && position >= captured[slot]) {
+                        put(ordinal, null, 0, null);
+                    }
+                } else {
+                    throw new UncheckedIOException(new IOException(
+                            "corrupt move log segment at " + Long.toHexString(position)));
+                }
+            }
+        }
+
+        private void put(int ordinal, UUID id, long position, Game game) {
+            int slot = ordinal / count;
+            if (slot >= games.length) {
+                int length = Math.max(slot + 1, games.length * 2);
+                games = Arrays.copyOf(games, length);
+                ids = Arrays.copyOf(ids, length);
+                captured = Arrays.copyOf(captured, length);
+            }
+            games[slot] = game;
+            ids[slot] = id;
+            captured[slot] = position;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package spw4.game2048;
+
+// The outcome of a move packed into a long, so moving allocates nothing: whether the board changed in
+// bit 0, the number of merges in bits 1-7 (at most 32 on an 8x8 board) and the score gained above them.
+public final class MoveResult {
+
+    public static final long UNCHANGED = 0;
+
+    private MoveResult() {
+    }
+
+    static long of(int merges, int scoreDelta) {
+        return 1 | (long) merges << 1 | (long) scoreDelta << 8;
+    }
+
+    public static boolean changed(long result) {
+        return (result & 1) != 0;
+    }
+
+    public static int merges(long result) {
+        return (int) (result >>> 1) & 0x7F;
+    }
+
+    public static int scoreDelta(long result) {
+        return (int) (result >>> 8);
+    }
+}
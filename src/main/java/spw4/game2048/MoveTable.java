@@ -0,0 +1,78 @@
+package spw4.game2048;
+
+// The outcome of moving each of the 2^16 rows of four exponents to the left and to the right,
+// built once per process when first used and shared by every game and solver. An entry packs
+// the moved row in bits 0-15, the score gained divided by four in bits 16-30 (every merge
+// scores a multiple of four, a row at most 2 * 2^15) and whether the row changed in the sign bit.
+final class MoveTable {
+
+    static final int ROWS = 1 << 16;
+    static final int BYTES = 2 * ROWS * Integer.BYTES;
+
+    private static final int[] LEFT = new int[ROWS];
+    private static final int[] RIGHT = new int[ROWS];
+    static final long BUILD_NANOS;
+
+    static {
+        long start = System.nanoTime();
+        int[] line = new int[Bitboard.SIZE];
+        for (int row = 0; row < ROWS; row++) {
+            int target = 0;
+            int score = 0;
+            boolean mergeable = false;
+            for (int i = 0; i < Bitboard.SIZE; i++) {
+                line[i] = 0;
+            }
+            for (int i = 0; i < Bitboard.SIZE; i++) {
+                int exponent = (row >>> (4 * i)) & 0xF;
+                if (exponent != 0) {
+                    if (mergeable && line[target - 1] == exponent && exponent < Bitboard.MAX_EXPONENT) {
+                        line[target - 1]++;
+                        score += 1 << line[target - 1];
+                        mergeable = false;
+                    } else {
+                        line[target++] = exponent;
+                        mergeable = true;
+                    }
+                }
+            }
+
+            int result = 0;
+            for (int i = 0; i < Bitboard.SIZE; i++) {
+                result |= line[i] << (4 * i);
+            }
+
+            LEFT[row] = entry(row, result, score);
+            RIGHT[reverse(row)] = entry(reverse(row), reverse(result), score);
+        }
+        BUILD_NANOS = System.nanoTime() - start;
+    }
+
+    private MoveTable() {
+    }
+
+    // up moves the columns like left moves the rows, once the board is transposed
+    static int[] of(Direction direction) {
+        return direction == Direction.left || direction == Direction.up ? LEFT : RIGHT;
+    }
+
+    static int row(int entry) {
+        return entry & 0xFFFF;
+    }
+
+    static int score(int entry) {
+        return (entry >>> 16 & 0x7FFF) << 2;
+    }
+
+    static boolean changed(int entry) {
+        return entry < 0;
+    }
+
+    private static int entry(int row, int result, int score) {
+        return result | (score >>> 2) << 16 | (result != row ? Integer.MIN_VALUE : 0);
+    }
+
+    private static int reverse(int row) {
+        return ((row & 0xF) << 12) | ((row & 0xF0) << 4) | ((row >>> 4) & 0xF0) | ((row >>> 12) & 0xF);
+    }
+}
@@ -0,0 +1,5 @@
+package spw4.game2048;
+
+public interface RandomSource {
+    int nextInt(int bound);
+}
@@ -0,0 +1,66 @@
+package spw4.game2048;
+
+import javax.servlet.GenericServlet;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// GameActions.Response over a servlet response. An async request shares answered with its timeout: the
+// first to set it writes the response, so a request that timed out drops what its worker sends later.
+final class ServletGameResponse implements GameActions.Response {
+
+    private final GenericServlet servlet;
+    private final String query;
+    private final HttpServletResponse response;
+    private final AtomicBoolean answered;
+    private boolean owned;
+
+    ServletGameResponse(GenericServlet servlet, String query, HttpServletResponse response) {
+        this(servlet, query, response, new AtomicBoolean());
+    }
+
+    // query is only logged, copied so an async worker never touches the request itself
+    ServletGameResponse(GenericServlet servlet, String query, HttpServletResponse response,
+                        AtomicBoolean answered) {
+        this.servlet = servlet;
+        this.query = query;
+        this.response = response;
+        this.answered = answered;
+    }
+
+    // true once this response has claimed the answer
+    boolean owned() {
+        return owned;
+    }
+
+    private boolean claim() {
+        if (!owned) {
+            owned = answered.compareAndSet(false, true);
+        }
+        return owned;
+    }
+
+    @Override
+    public void send(int status, String contentType, byte[] body) throws IOException {
+        if (!claim()) {
+            return;
+        }
+        response.setStatus(status);
+        response.setContentType(contentType);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    @Override
+    public void sendNoContent() {
+        if (!claim()) {
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+    }
+
+    @Override
+    public void failed(RuntimeException e) {
+        servlet.log("handling " + query + " failed", e);
+    }
+}
@@ -0,0 +1,119 @@
+package spw4.game2048;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public final class Simulation {
+
+    private final int games;
+    private final long seed;
+    private final int threads;
+    private final Function<RandomSource, Strategy> strategies;
+
+    Simulation(int games, long seed, int threads, Function<RandomSource, Strategy> strategies) {
+        this.games = games;
+        this.seed = seed;
+        this.threads = threads;
+        this.strategies = strategies;
+    }
+
+    public SimulationResult run() throws InterruptedException {
+        long start = System.nanoTime();
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimulationResult>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    SimulationResult result = new SimulationResult();
+                    int index;
+                    while ((index = next.getAndIncrement()) < games) {
+                        play(gameSeed(seed, index), result);
+                    }
+                    return result;
+                }));
+            }
+
+            SimulationResult total = new SimulationResult();
+            for (Future<SimulationResult> worker : workers) {
+                total.merge(worker.get());
+            }
+            total.setElapsedNanos(System.nanoTime() - start);
+            return total;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void play(long gameSeed, SimulationResult result) {
+        BitboardGame game = new BitboardGame(gameSeed);
+        Strategy strategy = strategies.apply(new SplitMixRandom(~gameSeed));
+        game.initialize();
+
+        Direction direction;
+        while ((direction = strategy.choose(game.getBoard())) != null) {
+            game.move(direction);
+        }
+        result.add(game.getScore(), game.getMoves(), Bitboard.maxExponent(game.getBoard()));
+    }
+
+    // every game gets its own stream derived from the run seed and its index,
+    // so results do not depend on the number of threads or their scheduling
+    static long gameSeed(long seed, int index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static Function<RandomSource, Strategy> strategy(String name, int depth) {
+        return switch (name) {
+            case "random" -> Strategy::random;
+            case "greedy" -> random -> Strategy.greedy();
+            case "solver" -> {
+                // one solver per worker, cleared for every game: a shared table would make a move
+                // depend on what other games or threads stored before
+                ThreadLocal<ExpectimaxSolver> solvers = ThreadLocal.withInitial(() -> new ExpectimaxSolver(
+                        depth, Duration.ofDays(1), ExpectimaxSolver.DEFAULT_TABLE_CAPACITY, null));
+                yield random -> {
+                    ExpectimaxSolver solver = solvers.get();
+                    solver.clear();
+                    return Strategy.solver(solver);
+                };
+            }
+            default -> throw new IllegalArgumentException("unknown strategy " + name);
+        };
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int games = 10_000;
+        String strategy = "random";
+        long seed = 1234;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int depth = 2;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--games" -> games = Integer.parseInt(args[i + 1]);
+                case "--strategy" -> strategy = args[i + 1];
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                case "--depth" -> depth = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        System.out.printf("playing %,d games with strategy %s, seed %d on %d threads%n",
+                games, strategy, seed, threads);
+        new Simulation(games, seed, threads, strategy(strategy, depth)).run().print(System.out);
+    }
+}
@@ -0,0 +1,96 @@
+package spw4.game2048;
+
+import java.io.PrintStream;
+
+public final class SimulationResult {
+
+    private static final int BUCKETS = 32;
+
+    private long games;
+    private long totalScore;
+    private long totalMoves;
+    private int minScore = Integer.MAX_VALUE;
+    private int maxScore;
+    private final long[] maxTiles = new long[Bitboard.MAX_EXPONENT + 1];
+    private final long[] scores = new long[BUCKETS];
+    private long elapsedNanos;
+
+    void add(int score, int moves, int maxExponent) {
+        games++;
+        totalScore += score;
+        totalMoves += moves;
+        minScore = Math.min(minScore, score);
+        maxScore = Math.max(maxScore, score);
+        maxTiles[maxExponent]++;
+        scores[BUCKETS - 1 - Integer.numberOfLeadingZeros(Math.max(score, 1))]++;
+    }
+
+    void merge(SimulationResult other) {
+        games += other.games;
+        totalScore += other.totalScore;
+        totalMoves += other.totalMoves;
+        minScore = Math.min(minScore, other.minScore);
+        maxScore = Math.max(maxScore, other.maxScore);
+        for (int i = 0; i < maxTiles.length; i++) {
+            maxTiles[i] += other.maxTiles[i];
+        }
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] += other.scores[i];
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    public long getTotalMoves() {
+        return totalMoves;
+    }
+
+    public int getMinScore() {
+        return games == 0 ? 0 : minScore;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    public long getMaxTileCount(int tile) {
+        return maxTiles[Bitboard.toExponent(tile)];
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("games: %,d in %,d ms (%,.0f games/s, %,.0f moves/s)%n", games, elapsedNanos / 1_000_000,
+                getGamesPerSecond(), elapsedNanos == 0 ? 0 : totalMoves * 1e9 / elapsedNanos);
+        out.printf("score: mean %,.1f, min %,d, max %,d%n",
+                games == 0 ? 0 : (double) totalScore / games, getMinScore(), maxScore);
+        out.printf("moves: mean %,.1f%n", games == 0 ? 0 : (double) totalMoves / games);
+
+        out.println("max tile:");
+        for (int i = 1; i < maxTiles.length; i++) {
+            if (maxTiles[i] > 0) {
+                out.printf("  %6d  %,12d  %6.2f%%%n", 1 << i, maxTiles[i], 100.0 * maxTiles[i] / games);
+            }
+        }
+
+        out.println("score:");
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0) {
+                out.printf("  %,9d - %,9d  %,12d  %6.2f%%%n", i == 0 ? 0 : 1L << i, (1L << (i + 1)) - 1,
+                        scores[i], 100.0 * scores[i] / games);
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package spw4.game2048;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+// Writes the state of every logged game to snapshot-<segment>.bin, where <segment> is the first
+// log segment the snapshot does not cover. Each game is captured under its own lock together with
+// the log position at that moment, so replay only applies the moves logged after its capture.
+public final class Snapshotter {
+
+    private static final int MAGIC = 0x534E4150;
+    private static final int END = -1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final int MAX_ENTRY_BYTES = 4 + 16 + 8 + 1 + 4 + 4 + 4 + 4 + 8 + GameImpl.MAX_SIZE * GameImpl.MAX_SIZE;
+
+    private final MoveLog log;
+    private final GameStore games;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+
+    public Snapshotter(MoveLog log, GameStore games) {
+        this.log = log;
+        this.games = games;
+    }
+
+    // returns the number of games written
+    public synchronized int snapshot() throws IOException {
+        long start = log.rollover() >>> 32;
+        Path directory = log.getDirectory();
+        Path temporary = directory.resolve(String.format("%s%016d.tmp", PREFIX, start));
+        int[] count = {0};
+
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.clear();
+            buffer.putInt(MAGIC);
+            buffer.putInt(log.getNextOrdinal());
+
+            // forEach holds the game's lock, so the buffer is only written out once it is nearly full
+            games.forEach((id, game) -> {
+                if (!(game instanceof LoggedGame logged) || logged.getLog() != log) {
+                    return;
+                }
+                if (buffer.remaining() < MAX_ENTRY_BYTES) {
+                    write(out);
+                }
+                put(logged, id);
+                count[0]++;
+            });
+
+            buffer.putInt(END);
+            write(out);
+            out.force(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Files.move(temporary, directory.resolve(String.format("%s%016d%s", PREFIX, start, SUFFIX)),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        // closes retired segments before they are deleted
+        log.flush();
+        for (Path snapshot : MoveLog.files(directory, PREFIX, SUFFIX)) {
+            if (number(snapshot) < start) {
+                Files.delete(snapshot);
+            }
+        }
+        log.deleteBefore(start);
+        return count[0];
+    }
+
+    private void put(LoggedGame logged, UUID id) {
+        Game game = logged.getGame();
+        int size = game.getSize();
+
+        buffer.putInt(logged.getOrdinal());
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        buffer.putLong(log.position());
+        buffer.put((byte) size);
+        buffer.putInt(game.getWinTile());
+        buffer.putInt(game.getHistoryDepth());
+        buffer.putInt(game.getScore());
+        buffer.putInt(game.getMoves());
+        buffer.putLong(randomState(game));
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                buffer.put((byte) Bitboard.toExponent(game.getValueAt(x, y)));
+            }
+        }
+    }
+
+    static RandomSource random(Game game) {
+        return game instanceof BitboardGame bitboard
+                ? bitboard.getRandom()
+                : ((GameImpl) game).getRandom();
+    }
+
+    private static long randomState(Game game) {
+        if (!(random(game) instanceof SplitMixRandom splitMix)) {
+            throw new IllegalStateException("only games on SplitMixRandom can be snapshot");
+        }
+        return splitMix.getState();
+    }
+
+    private void write(FileChannel out) {
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    interface Restored {
+        void accept(int ordinal, UUID id, long position, Game game);
+    }
+
+    // passes every game of the snapshot to restored and returns the next free game ordinal
+    static int read(Path snapshot, Restored restored) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (entries.remaining() < 8 || entries.getInt() != MAGIC) {
+                throw new IOException("not a snapshot: " + snapshot);
+            }
+
+            int nextOrdinal = entries.getInt();
+            int ordinal;
+            while ((ordinal = entries.getInt()) != END) {
+                UUID id = new UUID(entries.getLong(), entries.getLong());
+                long position = entries.getLong();
+                int size = entries.get();
+                int winTile = entries.getInt();
+                int historyDepth = entries.getInt();
+                int score = entries.getInt();
+                int moves = entries.getInt();
+                SplitMixRandom random = new SplitMixRandom();
+                random.setState(entries.getLong());
+
+                int[][] board = new int[size][size];
+                for (int y = 0; y < size; y++) {
+                    for (int x = 0; x < size; x++) {
+                        board[x][y] = Bitboard.toValue(entries.get());
+                    }
+                }
+                restored.accept(ordinal, id, position, restore(board, winTile, historyDepth, score, moves, random));
+            }
+            return nextOrdinal;
+        }
+    }
+
+    // picks the same engine as Game.create; the history starts out empty
+    static Game restore(int[][] board, int winTile, int historyDepth, int score, int moves, RandomSource random) {
+        if (board.length == Bitboard.SIZE && winTile <= Bitboard.toValue(Bitboard.MAX_EXPONENT)) {
+            return new BitboardGame(board, winTile, historyDepth, score, moves, random);
+        }
+        return new GameImpl(board, winTile, historyDepth, score, moves, random);
+    }
+
+    // the newest complete snapshot in the directory, or null
+    static Path latest(Path directory) throws IOException {
+        List<Path> snapshots = MoveLog.files(directory, PREFIX, SUFFIX);
+        return snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+    }
+
+    static long number(Path snapshot) {
+        return MoveLog.number(snapshot, PREFIX, SUFFIX);
+    }
+}
@@ -0,0 +1,52 @@
+package spw4.game2048;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+public final class SolverMain {
+
+    private SolverMain() {
+    }
+
+    // reads one board per line (16 tile values, row by row) and prints the best move for each
+    public static void main(String[] args) throws IOException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : ExpectimaxSolver.DEFAULT_MAX_DEPTH;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : ExpectimaxSolver.DEFAULT_TIME_BUDGET.toMillis();
+        ExpectimaxSolver solver = new ExpectimaxSolver(depth, Duration.ofMillis(millis));
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        long nodes = 0;
+        long nanos = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+
+            SolverResult result = solver.solve(parseBoard(line));
+            nodes += result.nodes();
+            nanos += result.elapsedNanos();
+            System.out.printf("%s\t%.1f\tdepth %d\t%,d nodes\t%,.0f nodes/s%n",
+                    result.hasMove() ? result.direction() : "none", result.value(), result.depth(),
+                    result.nodes(), result.nodesPerSecond());
+        }
+
+        System.err.printf("total: %,d nodes in %,d ms (%,.0f nodes/s)%n",
+                nodes, nanos / 1_000_000, nanos == 0 ? 0 : nodes * 1e9 / nanos);
+    }
+
+    static long parseBoard(String line) {
+        String[] values = line.trim().split("[\\s,]+");
+        if (values.length != Bitboard.SIZE * Bitboard.SIZE) {
+            throw new IllegalArgumentException("expected 16 values but got " + values.length);
+        }
+
+        long board = 0;
+        for (int i = 0; i < values.length; i++) {
+            board = Bitboard.set(board, i % Bitboard.SIZE, i / Bitboard.SIZE,
+                    Bitboard.toExponent(Integer.parseInt(values[i])));
+        }
+        return board;
+    }
+}
@@ -0,0 +1,12 @@
+package spw4.game2048;
+
+public record SolverResult(Direction direction, double value, int depth, long nodes, long elapsedNanos) {
+
+    public boolean hasMove() {
+        return direction != null;
+    }
+
+    public double nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,42 @@
+package spw4.game2048;
+
+interface Strategy {
+
+    Direction[] DIRECTIONS = Direction.values();
+
+    Direction choose(long board);
+
+    static Strategy random(RandomSource random) {
+        return board -> {
+            int legal = 0;
+            Direction[] candidates = new Direction[DIRECTIONS.length];
+            for (Direction direction : DIRECTIONS) {
+                if (Bitboard.move(board, direction) != board) {
+                    candidates[legal++] = direction;
+                }
+            }
+            return legal == 0 ? null : candidates[random.nextInt(legal)];
+        };
+    }
+
+    static Strategy greedy() {
+        return board -> {
+            Direction best = null;
+            int bestScore = -1;
+            for (Direction direction : DIRECTIONS) {
+                if (Bitboard.move(board, direction) != board) {
+                    int score = Bitboard.score(board, direction);
+                    if (score > bestScore) {
+                        best = direction;
+                        bestScore = score;
+                    }
+                }
+            }
+            return best;
+        };
+    }
+
+    static Strategy solver(ExpectimaxSolver solver) {
+        return board -> solver.solve(board).direction();
+    }
+}
@@ -0,0 +1,121 @@
+package spw4.game2048;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// The exact best move of every position of a small board below its win tile, read from a file written by
+// TablebaseGenerator. A position is the base-k number of its exponents (k = log2 of the win tile, cell 0
+// the lowest digit); its char entry holds the best direction's ordinal in bits 14-15 and the chance of
+// reaching the win tile with best play in bits 0-13, in steps of 1/16383.
+public final class Tablebase {
+
+    static final int MAGIC = 0x54424153;
+    static final int HEADER_BYTES = 16;
+    static final int SIZE_OFFSET = 4;
+    static final int WIN_TILE_OFFSET = 8;
+    // the highest tile sum still to be solved, 0 once the tablebase is complete
+    static final int PENDING_OFFSET = 12;
+    static final int MAX_VALUE = (1 << 14) - 1;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int size;
+    private final int winTile;
+    private final int base;
+    private final MappedByteBuffer entries;
+
+    private Tablebase(int size, int winTile, MappedByteBuffer entries) {
+        this.size = size;
+        this.winTile = winTile;
+        this.base = Integer.numberOfTrailingZeros(winTile);
+        this.entries = entries;
+    }
+
+    public static Tablebase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (entries.limit() < HEADER_BYTES || entries.getInt(0) != MAGIC) {
+                throw new IOException("not a tablebase: " + file);
+            }
+            if (entries.getInt(PENDING_OFFSET) != 0) {
+                throw new IOException("tablebase is incomplete: " + file);
+            }
+
+            int size = entries.getInt(SIZE_OFFSET);
+            int winTile = entries.getInt(WIN_TILE_OFFSET);
+            if (entries.limit() != bytes(size, winTile)) {
+                throw new IOException("tablebase is truncated: " + file);
+            }
+            return new Tablebase(size, winTile, entries);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinTile() {
+        return winTile;
+    }
+
+    // null if the game is finished or not covered by this tablebase
+    public Direction best(Game game) {
+        long index = index(game);
+        return index < 0 ? null : DIRECTIONS[entries.getChar(offset(index)) >>> 14];
+    }
+
+    // the chance of reaching the win tile with best play, or -1 if the game is not covered
+    public double winChance(Game game) {
+        if (game.isWon()) {
+            return 1;
+        }
+        long index = index(game);
+        return index < 0 ? -1 : value(entries.getChar(offset(index)));
+    }
+
+    private long index(Game game) {
+        if (game.getSize() != size || game.getWinTile() != winTile || game.isOver()) {
+            return -1;
+        }
+
+        long index = 0;
+        for (int y = size - 1; y >= 0; y--) {
+            for (int x = size - 1; x >= 0; x--) {
+                int exponent = Bitboard.toExponent(game.getValueAt(x, y));
+                if (exponent >= base) {
+                    return -1;
+                }
+                index = index * base + exponent;
+            }
+        }
+        return index;
+    }
+
+    static long positions(int size, int winTile) {
+        long positions = 1;
+        int base = Integer.numberOfTrailingZeros(winTile);
+        for (int cell = 0; cell < size * size; cell++) {
+            positions *= base;
+        }
+        return positions;
+    }
+
+    static long bytes(int size, int winTile) {
+        return HEADER_BYTES + positions(size, winTile) * Character.BYTES;
+    }
+
+    static int offset(long index) {
+        return HEADER_BYTES + (int) index * Character.BYTES;
+    }
+
+    static char entry(Direction direction, double value) {
+        return (char) (direction.ordinal() << 14 | (int) Math.round(value * MAX_VALUE));
+    }
+
+    static double value(char entry) {
+        return (entry & MAX_VALUE) / (double) MAX_VALUE;
+    }
+}
@@ -0,0 +1,264 @@
+package spw4.game2048;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Solves every position of a small board below its win tile backwards from the largest tile sum. A move
+// keeps the sum of the tiles and the new tile adds 2 or 4, so a position only depends on positions with a
+// higher sum: all positions of one sum are solved in parallel once the higher sums are done. The pending
+// sum in the header is only lowered after a level has been forced to disk, so generating into an
+// existing file resumes at the first unfinished level. Children are read as floats from a side file
+// (<file>.values), not from the 14-bit entries, so rounding does not add up over the levels: an entry
+// is within about half a step of its exact value. The side file is deleted once the tablebase is complete.
+public final class TablebaseGenerator {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int SEGMENT_BITS = 28;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final int size;
+    private final int winTile;
+    private final int base;
+    private final int cells;
+    private final long[] powers;
+    private final int[][][] lines;
+    private final ForkJoinPool pool;
+
+    public TablebaseGenerator(int size, int winTile, ForkJoinPool pool) {
+        if (size < 2 || size > 4) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        if (winTile < 8 || Integer.bitCount(winTile) != 1) {
+            throw new IllegalArgumentException("win tile is invalid");
+        }
+        if (Tablebase.bytes(size, winTile) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("tablebase is too large");
+        }
+
+        this.size = size;
+        this.winTile = winTile;
+        this.base = Integer.numberOfTrailingZeros(winTile);
+        this.cells = size * size;
+        this.pool = pool;
+
+        powers = new long[cells];
+        powers[0] = 1;
+        for (int cell = 1; cell < cells; cell++) {
+            powers[cell] = powers[cell - 1] * base;
+        }
+
+        // the cells of every line, walked from the edge the tiles move towards as in GameImpl
+        lines = new int[DIRECTIONS.length][size][size];
+        for (Direction direction : DIRECTIONS) {
+            for (int line = 0; line < size; line++) {
+                for (int i = 0; i < size; i++) {
+                    lines[direction.ordinal()][line][i] = switch (direction) {
+                        case left -> line * size + i;
+                        case right -> line * size + size - 1 - i;
+                        case up -> i * size + line;
+                        case down -> (size - 1 - i) * size + line;
+                    };
+                }
+            }
+        }
+    }
+
+    // returns the number of tile sums solved, 0 if the file was already complete
+    public int generate(Path file) throws IOException {
+        return generate(file, 0);
+    }
+
+    // solves the pending tile sums above until, as a run interrupted there would have
+    int generate(Path file, int until) throws IOException {
+        Path valuesFile = valuesFile(file);
+        int solved = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean created = channel.size() == 0;
+            if (!created) {
+                // checked before mapping, which would grow the file of another tablebase
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        Math.min(channel.size(), Tablebase.HEADER_BYTES));
+                if (header.limit() < Tablebase.HEADER_BYTES || header.getInt(0) != Tablebase.MAGIC
+                        || header.getInt(Tablebase.SIZE_OFFSET) != size
+                        || header.getInt(Tablebase.WIN_TILE_OFFSET) != winTile) {
+                    throw new IOException(
+                            "not a tablebase for size " + size + " and win tile " + winTile + ": " + file);
+                }
+            }
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_WRITE, 0, Tablebase.bytes(size, winTile));
+            if (created) {
+                table.putInt(0, Tablebase.MAGIC);
+                table.putInt(Tablebase.SIZE_OFFSET, size);
+                table.putInt(Tablebase.WIN_TILE_OFFSET, winTile);
+                table.putInt(Tablebase.PENDING_OFFSET, cells * tile(base - 1));
+                table.force();
+            }
+
+            if (table.getInt(Tablebase.PENDING_OFFSET) > until) {
+                try (FileChannel valueChannel = FileChannel.open(valuesFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    boolean lost = !created && valueChannel.size() == 0;
+                    MappedByteBuffer[] values = mapValues(valueChannel);
+                    if (lost) {
+                        // resumed without its values, the solved levels are only known to their entry's precision
+                        for (long index = 0; index < Tablebase.positions(size, winTile); index++) {
+                            putValue(values, index, (float) Tablebase.value(table.getChar(Tablebase.offset(index))));
+                        }
+                    }
+
+                    for (int sum = table.getInt(Tablebase.PENDING_OFFSET); sum > until; sum -= 2) {
+                        int levelSum = sum;
+                        pool.submit(() -> IntStream.range(0, base * base).parallel()
+                                .forEach(prefix -> solvePrefix(table, values, levelSum, prefix))).join();
+                        for (MappedByteBuffer segment : values) {
+                            segment.force();
+                        }
+                        table.force();
+                        table.putInt(Tablebase.PENDING_OFFSET, sum - 2);
+                        table.force();
+                        solved++;
+                    }
+                }
+            }
+            if (table.getInt(Tablebase.PENDING_OFFSET) > 0) {
+                return solved;
+            }
+        }
+        Files.deleteIfExists(valuesFile);
+        return solved;
+    }
+
+    // the exact values of the positions solved so far, kept beside the file until it is complete
+    static Path valuesFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".values");
+    }
+
+    // a float per position, mapped in segments of 1 GB
+    private MappedByteBuffer[] mapValues(FileChannel channel) throws IOException {
+        long positions = Tablebase.positions(size, winTile);
+        MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((positions - 1 >> SEGMENT_BITS) + 1)];
+        for (int i = 0; i < segments.length; i++) {
+            long first = (long) i << SEGMENT_BITS;
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, first * Float.BYTES,
+                    Math.min(positions - first, 1L << SEGMENT_BITS) * Float.BYTES);
+        }
+        return segments;
+    }
+
+    // the first two cells split a level into base^2 independent tasks
+    private void solvePrefix(MappedByteBuffer table, MappedByteBuffer[] values, int sum, int prefix) {
+        int[] board = new int[cells];
+        board[0] = prefix % base;
+        board[1] = prefix / base;
+        int remaining = sum - tile(board[0]) - tile(board[1]);
+        if (remaining >= 0) {
+            fill(table, values, board, new int[cells], 2, remaining);
+        }
+    }
+
+    private void fill(MappedByteBuffer table, MappedByteBuffer[] values, int[] board, int[] moved, int cell,
+                      int remaining) {
+        if (cell == cells) {
+            if (remaining == 0) {
+                solve(table, values, board, moved);
+            }
+            return;
+        }
+        if (remaining > (cells - cell) * tile(base - 1)) {
+            return;
+        }
+        for (int exponent = 0; exponent < base && tile(exponent) <= remaining; exponent++) {
+            board[cell] = exponent;
+            fill(table, values, board, moved, cell + 1, remaining - tile(exponent));
+        }
+    }
+
+    // children are read from the exact values, only the entry is rounded
+    private void solve(MappedByteBuffer table, MappedByteBuffer[] values, int[] board, int[] moved) {
+        Direction best = Direction.up;
+        double bestValue = 0;
+        boolean movable = false;
+        for (Direction direction : DIRECTIONS) {
+            int result = move(board, direction, moved);
+            if (result < 0) {
+                continue;
+            }
+
+            double value = 1;
+            if (result == 0) {
+                // a move that changed the board always leaves an empty cell for the new tile
+                long index = index(moved);
+                int empty = 0;
+                double total = 0;
+                for (int cell = 0; cell < cells; cell++) {
+                    if (moved[cell] == 0) {
+                        empty++;
+                        total += 0.9 * value(values, index + powers[cell])
+                                + 0.1 * value(values, index + 2 * powers[cell]);
+                    }
+                }
+                value = total / empty;
+            }
+            if (!movable || value > bestValue) {
+                best = direction;
+                bestValue = value;
+                movable = true;
+            }
+        }
+        long index = index(board);
+        putValue(values, index, (float) bestValue);
+        table.putChar(Tablebase.offset(index), Tablebase.entry(best, bestValue));
+    }
+
+    // -1 if the board did not change, 1 if a merge reached the win tile, otherwise 0
+    private int move(int[] board, Direction direction, int[] moved) {
+        Arrays.fill(moved, 0);
+        boolean won = false;
+        for (int[] line : lines[direction.ordinal()]) {
+            int target = 0;
+            boolean mergeable = false;
+            for (int cell : line) {
+                int exponent = board[cell];
+                if (exponent == 0) continue;
+
+                if (mergeable && moved[line[target - 1]] == exponent) {
+                    moved[line[target - 1]]++;
+                    won |= exponent + 1 == base;
+                    mergeable = false;
+                } else {
+                    moved[line[target++]] = exponent;
+                    mergeable = true;
+                }
+            }
+        }
+        return won ? 1 : Arrays.equals(board, moved) ? -1 : 0;
+    }
+
+    private long index(int[] board) {
+        long index = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            index += board[cell] * powers[cell];
+        }
+        return index;
+    }
+
+    private static double value(MappedByteBuffer[] values, long index) {
+        return values[(int) (index >>> SEGMENT_BITS)].getFloat((int) (index & SEGMENT_MASK) * Float.BYTES);
+    }
+
+    private static void putValue(MappedByteBuffer[] values, long index, float value) {
+        values[(int) (index >>> SEGMENT_BITS)].putFloat((int) (index & SEGMENT_MASK) * Float.BYTES, value);
+    }
+
+    private static int tile(int exponent) {
+        return exponent == 0 ? 0 : 1 << exponent;
+    }
+}
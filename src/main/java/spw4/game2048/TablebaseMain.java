@@ -0,0 +1,33 @@
+package spw4.game2048;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+public final class TablebaseMain {
+
+    private TablebaseMain() {
+    }
+
+    // generates or resumes a tablebase, e.g. TablebaseMain tablebase-3x3-128.bin 3 128
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: TablebaseMain <file> [size] [win tile] [threads]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int winTile = args.length > 2 ? Integer.parseInt(args[2]) : 128;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            int solved = new TablebaseGenerator(size, winTile, pool).generate(file);
+            System.err.printf("solved %d tile sums of %,d positions on %d threads in %,d ms%n",
+                    solved, Tablebase.positions(size, winTile), threads, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package spw4.game2048;
+
+import java.util.Arrays;
+
+final class TranspositionTable {
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+
+    TranspositionTable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        keys = new long[size];
+        entries = new long[size];
+        mask = size - 1;
+    }
+
+    // entries are written without locks; the key is stored xor-ed with its entry,
+    // so a torn or concurrently replaced slot simply reads as a miss
+    float get(long board, int depth) {
+        int index = index(board);
+        long entry = entries[index];
+        long key = keys[index];
+        if ((key ^ entry) != board || (int) (entry >>> 32) < depth) {
+            return Float.NaN;
+        }
+        return Float.intBitsToFloat((int) entry);
+    }
+
+    void put(long board, int depth, float value) {
+        int index = index(board);
+        long entry = (long) depth << 32 | (Float.floatToRawIntBits(value) & 0xFFFFFFFFL);
+        entries[index] = entry;
+        keys[index] = board ^ entry;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, 0);
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    private int index(long board) {
+        long hash = board * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
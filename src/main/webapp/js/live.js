@@ -0,0 +1,81 @@
+// Plays the game over the WebSocket at live?id=<game> once it is open, so moves update the
+// page in place instead of loading a new one. Every action goes up as one byte; the server
+// answers with status, score, moves and the changed cells (see LiveGameEndpoint). Without a
+// connection the links keep working as before.
+(function () {
+    'use strict';
+
+    var ACTIONS = {up: 0, down: 1, left: 2, right: 3, undo: 4, redo: 5};
+    var KEYS = {ArrowUp: 0, ArrowDown: 1, ArrowLeft: 2, ArrowRight: 3};
+    var STATUS_OVER = 1;
+    var GONE = 4410;
+
+    var id = document.body.getAttribute('data-game');
+    if (!id || !window.WebSocket) {
+        return;
+    }
+
+    var cells = document.querySelectorAll('.bg-secondary .bg-light');
+    var size = Math.round(Math.sqrt(cells.length));
+    var moves = document.getElementById('moves');
+    var score = document.getElementById('score');
+    var page = 'Game?id=' + id;
+    // unknown until the first update
+    var over = null;
+
+    var base = location.pathname.replace(/[^/]*$/, '');
+    var socket = new WebSocket((location.protocol === 'https:' ? 'wss://' : 'ws://')
+        + location.host + base + 'live?id=' + encodeURIComponent(id));
+    socket.binaryType = 'arraybuffer';
+
+    function send(action) {
+        if (socket.readyState === WebSocket.OPEN) {
+            socket.send(new Uint8Array([action]));
+            return true;
+        }
+        return false;
+    }
+
+    socket.onmessage = function (event) {
+        var update = new DataView(event.data);
+        var status = update.getUint8(0);
+        score.textContent = 'Score: ' + update.getInt32(1);
+        moves.textContent = 'Moves: ' + update.getInt32(5);
+
+        var changed = update.getUint8(9);
+        for (var i = 0; i < changed; i++) {
+            var cell = update.getUint8(10 + 2 * i);
+            var exponent = update.getUint8(11 + 2 * i);
+            // the page lists the cells column by column, the update row by row
+            var element = cells[(cell % size) * size + Math.floor(cell / size)];
+            element.textContent = exponent === 0 ? '0' : String(Math.pow(2, exponent));
+        }
+
+        // the page renders the result, and removes it again after an undo
+        var nowOver = (status & STATUS_OVER) !== 0;
+        if (over !== null && over !== nowOver) {
+            location.href = page;
+        }
+        over = nowOver;
+    };
+
+    socket.onclose = function (event) {
+        if (event.code === GONE) {
+            location.href = page;
+        }
+    };
+
+    document.addEventListener('click', function (event) {
+        var link = event.target.closest('a[href]');
+        var match = link && /[?&]action=(\w+)/.exec(link.getAttribute('href'));
+        if (match && ACTIONS.hasOwnProperty(match[1]) && send(ACTIONS[match[1]])) {
+            event.preventDefault();
+        }
+    });
+
+    document.addEventListener('keydown', function (event) {
+        if (KEYS.hasOwnProperty(event.key) && send(KEYS[event.key])) {
+            event.preventDefault();
+        }
+    });
+}());
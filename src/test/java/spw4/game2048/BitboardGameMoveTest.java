@@ -0,0 +1,24 @@
+package spw4.game2048;
+
+public class BitboardGameMoveTest extends GameMoveTest {
+
+    @Override
+    protected Game createGame(RandomSource random) {
+        return new BitboardGame(random);
+    }
+
+    @Override
+    protected Game createGame(int historyDepth, RandomSource random) {
+        return new BitboardGame(Game.DEFAULT_WIN_TILE, historyDepth, random);
+    }
+
+    @Override
+    protected Game createGame(int[][] gameBoard, RandomSource random) {
+        return new BitboardGame(gameBoard, random);
+    }
+
+    @Override
+    protected int getTilesCount(Game game) {
+        return ((BitboardGame) game).getTilesCount();
+    }
+}
@@ -0,0 +1,123 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class BitboardGameTest {
+
+    @DisplayName("BitboardGame.initialize when called, tiles count is equal to 2")
+    @Test
+    void initializeTilesCountEqualsTwo() {
+        BitboardGame sut = new BitboardGame();
+
+        sut.initialize();
+
+        assertThat(sut.getTilesCount()).isEqualTo(2);
+    }
+
+    @DisplayName("BitboardGame.getValueAt when invalid index throws IllegalArgumentException")
+    @ParameterizedTest(name = "{0} and {1}")
+    @CsvSource({"-1, 0", "0, -1", "4, 0", "0, 4"})
+    void getValueAtWithInvalidIndexThrowsException(int x, int y) {
+        BitboardGame sut = new BitboardGame();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> sut.getValueAt(x, y));
+    }
+
+    @DisplayName("BitboardGame.isWon when one tile is 2048 returns true")
+    @Test
+    void isWonWhenTileIs2048ReturnsTrue() {
+        int[][] gameBoard = new int[4][4];
+        gameBoard[2][3] = 2048;
+        BitboardGame sut = new BitboardGame(gameBoard, new SplitMixRandom(1234));
+
+        assertThat(sut.isWon()).isTrue();
+    }
+
+    @DisplayName("BitboardGame.isWon when the win tile is 4096 and the largest tile is 2048 returns false")
+    @Test
+    void isWonWithHigherWinTileReturnsFalse() {
+        BitboardGame sut = new BitboardGame(4096, new IntRandomStub(List.of(-1)));
+
+        assertThat(sut.getWinTile()).isEqualTo(4096);
+        assertThat(sut.isWon()).isFalse();
+    }
+
+    @DisplayName("BitboardGame.ctor when the win tile is not a power of two throws IllegalArgumentException")
+    @Test
+    void ctorWithInvalidWinTileThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BitboardGame(3000, new SplitMixRandom(1234)));
+    }
+
+    @DisplayName("BitboardGame.isOver when the board is full but can merge returns false")
+    @Test
+    void isOverWhenFullButCanMergeReturnsFalse() {
+        BitboardGame sut = new BitboardGame(new int[][]{
+                {2, 4, 2, 4},
+                {4, 2, 4, 2},
+                {2, 4, 2, 4},
+                {4, 2, 4, 4}}, new SplitMixRandom(1234));
+
+        assertThat(sut.isOver()).isFalse();
+    }
+
+    @DisplayName("BitboardGame.isOver when the board is full and nothing can merge returns true")
+    @Test
+    void isOverWhenFullAndStuckReturnsTrue() {
+        BitboardGame sut = new BitboardGame(new int[][]{
+                {2, 4, 2, 4},
+                {4, 2, 4, 2},
+                {2, 4, 2, 4},
+                {4, 2, 4, 2}}, new SplitMixRandom(1234));
+
+        assertThat(sut.isOver()).isTrue();
+    }
+
+    @DisplayName("BitboardGame.toString returns valid String after initialize")
+    @Test
+    void toStringReturnsValidStringAfterInitialize() {
+        BitboardGame sut = new BitboardGame(new IntRandomStub(List.of(45, 99)));
+        sut.initialize();
+
+        String result = sut.toString();
+
+        assertThat(result).isEqualTo("" +
+                "Moves: 0\t\tScore: 0\n" +
+                ".\t\t.\t\t.\t\t.\t\t\n" +
+                "2\t\t.\t\t.\t\t.\t\t\n" +
+                ".\t\t.\t\t4\t\t.\t\t\n" +
+                ".\t\t.\t\t.\t\t.\t\t\n");
+    }
+
+    @DisplayName("BitboardGame.move plays the same game as GameImpl")
+    @ParameterizedTest(name = "seed {0}")
+    @ValueSource(longs = {1, 42, 1234, 987654321})
+    void movePlaysSameGameAsGameImpl(long seed) {
+        GameImpl expected = new GameImpl(seed);
+        BitboardGame sut = new BitboardGame(seed);
+        Random directions = new Random(seed);
+        expected.initialize();
+        sut.initialize();
+
+        for (int i = 0; i < 2000 && !expected.isOver(); i++) {
+            Direction direction = Direction.values()[directions.nextInt(4)];
+            expected.move(direction);
+            sut.move(direction);
+
+            assertThat(sut.toString()).isEqualTo(expected.toString());
+            assertThat(sut.isOver()).isEqualTo(expected.isOver());
+            assertThat(sut.isWon()).isEqualTo(expected.isWon());
+        }
+    }
+}
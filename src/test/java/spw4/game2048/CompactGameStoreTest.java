@@ -0,0 +1,255 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class CompactGameStoreTest {
+
+    private static final int THREADS = 8;
+    private static final int GAMES_PER_THREAD = 5_000;
+
+    @TempDir
+    Path directory;
+
+    private final CompactGameStore sut = new CompactGameStore(
+            2 * THREADS * GAMES_PER_THREAD, Duration.ofHours(1), Duration.ofHours(1));
+
+    @DisplayName("CompactGameStore.apply when game does not exist throws GameExpiredException")
+    @Test
+    void applyWithUnknownIdThrowsException() {
+        assertThrows(GameExpiredException.class,
+                () -> sut.apply(UUID.randomUUID(), Game::getMoves));
+    }
+
+    @DisplayName("CompactGameStore.apply keeps board, score, moves and random sequence between calls")
+    @Test
+    void applyKeepsGameBetweenCalls() {
+        BitboardGame expected = new BitboardGame(1234);
+        BitboardGame game = new BitboardGame(1234);
+        expected.initialize();
+        game.initialize();
+        UUID id = sut.add(game);
+
+        for (int i = 0; i < 200; i++) {
+            Direction direction = Direction.values()[i % 3];
+            expected.move(direction);
+            sut.apply(id, g -> g.move(direction));
+        }
+
+        assertThat(sut.apply(id, Game::toString)).isEqualTo(expected.toString());
+        assertThat(sut.apply(id, Game::isWon)).isEqualTo(expected.isWon());
+    }
+
+    @DisplayName("CompactGameStore.apply keeps the undo history between calls")
+    @Test
+    void applyKeepsHistoryBetweenCalls() {
+        Game game = new BitboardGame(Game.DEFAULT_WIN_TILE, 8, new SplitMixRandom(1234));
+        game.initialize();
+        UUID id = sut.add(game);
+        String before = sut.apply(id, Game::toString);
+        for (int i = 0; sut.apply(id, Game::getMoves) < 3; i++) {
+            Direction direction = Direction.values()[i & 3];
+            sut.apply(id, g -> g.move(direction));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(sut.apply(id, Game::undo)).isTrue();
+        }
+
+        assertThat(sut.apply(id, Game::toString)).isEqualTo(before);
+        assertThat(sut.apply(id, Game::undo)).isFalse();
+    }
+
+    @DisplayName("CompactGameStore.apply on a game that is not 4x4 passes the added game itself")
+    @Test
+    void applyWithOtherSizeReturnsSameGame() {
+        Game game = new GameImpl(5, 2048, new SplitMixRandom(1234));
+        UUID id = sut.add(game);
+
+        Game result = sut.apply(id, g -> g);
+
+        assertThat(result).isSameAs(game);
+        assertThat(sut.size()).isOne();
+    }
+
+    @DisplayName("CompactGameStore.apply when game was idle too long throws GameExpiredException")
+    @Test
+    void applyAfterIdleTimeoutThrowsException() {
+        AtomicLong clock = new AtomicLong();
+        CompactGameStore store = new CompactGameStore(10, Duration.ofHours(1), Duration.ofMinutes(5), clock::get);
+        UUID id = store.add(new BitboardGame(1234));
+
+        clock.set(Duration.ofMinutes(4).toNanos());
+        store.apply(id, Game::getMoves);
+        clock.set(Duration.ofMinutes(10).toNanos());
+
+        assertThrows(GameExpiredException.class,
+                () -> store.apply(id, Game::getMoves));
+        assertThat(store.size()).isZero();
+        assertThat(store.getExpiredEvictions()).isOne();
+    }
+
+    @DisplayName("CompactGameStore.evictExpired passes a view of every evicted game to the removal listener")
+    @Test
+    void evictExpiredNotifiesRemovalListener() {
+        AtomicLong clock = new AtomicLong();
+        CompactGameStore store = new CompactGameStore(10, Duration.ofMinutes(10), Duration.ofMinutes(10), clock::get);
+        List<Game> removed = new CopyOnWriteArrayList<>();
+        store.setRemovalListener(removed::add);
+        Game game = new BitboardGame(1234);
+        game.initialize();
+        store.add(game);
+        UUID young = store.add(new BitboardGame(1234));
+        store.apply(young, Game::getMoves);
+
+        clock.set(Duration.ofMinutes(11).toNanos());
+        store.evictExpired();
+
+        assertThat(removed).hasSize(2);
+        assertThat(removed).extracting(Game::toString).contains(game.toString());
+        assertThat(store.size()).isZero();
+        assertThat(store.getExpiredEvictions()).isEqualTo(2);
+    }
+
+    @DisplayName("CompactGameStore.add when full evicts the least recently used games")
+    @Test
+    void addWhenFullEvictsLeastRecentlyUsed() {
+        AtomicLong clock = new AtomicLong();
+        CompactGameStore store = new CompactGameStore(10, Duration.ofHours(1), Duration.ofHours(1), clock::get);
+        UUID[] ids = new UUID[10];
+        for (int i = 0; i < ids.length; i++) {
+            clock.addAndGet(Duration.ofSeconds(1).toNanos());
+            ids[i] = store.add(new BitboardGame(i));
+        }
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        store.apply(ids[0], Game::getMoves);
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        store.add(new BitboardGame(1234));
+
+        assertThat(store.size()).isEqualTo(9);
+        assertThat(store.getCapacityEvictions()).isEqualTo(2);
+        assertThat(store.apply(ids[0], Game::getMoves)).isZero();
+        assertThrows(GameExpiredException.class,
+                () -> store.apply(ids[1], Game::getMoves));
+        assertThrows(GameExpiredException.class,
+                () -> store.apply(ids[2], Game::getMoves));
+    }
+
+    @DisplayName("CompactGameStore.add of compact and other games keeps their total within the maximum size")
+    @Test
+    void addMixedGamesKeepsTotalWithinMaxSize() {
+        CompactGameStore store = new CompactGameStore(10, Duration.ofHours(1), Duration.ofHours(1));
+        for (int i = 0; i < 10; i++) {
+            store.add(new BitboardGame(i));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            store.add(new GameImpl(3, 256, new SplitMixRandom(i)));
+            assertThat(store.size()).isLessThanOrEqualTo(store.getMaxSize());
+        }
+        UUID added = null;
+        for (int i = 0; i < 10; i++) {
+            added = store.add(new BitboardGame(100 + i));
+            assertThat(store.size()).isLessThanOrEqualTo(store.getMaxSize());
+        }
+        assertThat(store.apply(added, Game::getSize)).isEqualTo(4);
+    }
+
+    @DisplayName("CompactGameStore.forEach visits compact and other games")
+    @Test
+    void forEachVisitsEveryGame() {
+        Map<UUID, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            Game game = i % 10 == 0 ? new GameImpl(3, 256, new SplitMixRandom(i)) : new BitboardGame(i);
+            expected.put(sut.add(game), game.getSize());
+        }
+
+        Map<UUID, Integer> result = new HashMap<>();
+        sut.forEach((id, game) -> result.put(id, game.getSize()));
+
+        assertThat(result).isEqualTo(expected);
+    }
+
+    @DisplayName("CompactGameStore.apply on a logged game appends its moves to the move log")
+    @Test
+    void applyOnLoggedGameAppendsMoves() throws IOException {
+        UUID id = UUID.randomUUID();
+        String expected;
+        try (MoveLog log = new MoveLog(directory)) {
+            Game game = new BitboardGame(new SplitMixRandom(42));
+            game.initialize();
+            log.track(id, 42, game, sut::add);
+            for (int i = 0; i < 50; i++) {
+                Direction direction = Direction.values()[i & 3];
+                sut.apply(id, g -> g.move(direction));
+            }
+            expected = sut.apply(id, Game::toString);
+        }
+
+        Map<UUID, Game> result = new HashMap<>();
+        try (MoveLog log = new MoveLog(directory)) {
+            log.replay(result::put);
+        }
+
+        assertThat(result.get(id).toString()).isEqualTo(expected);
+    }
+
+    @DisplayName("CompactGameStore.apply from many threads while games are added loses no moves")
+    @Test
+    void applyConcurrentlyLosesNoMoves() throws Exception {
+        UUID id = sut.add(new BitboardGame(1234));
+        Map<UUID, Boolean> added = new ConcurrentHashMap<>();
+        AtomicInteger changedMoves = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new CopyOnWriteArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < GAMES_PER_THREAD; i++) {
+                        Direction direction = Direction.values()[(offset + i) & 3];
+                        if (MoveResult.changed(sut.apply(id, game -> game.move(direction)))) {
+                            changedMoves.incrementAndGet();
+                        }
+                        // growing the segments moves the game between slots
+                        added.put(sut.add(new BitboardGame(i)), true);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sut.apply(id, Game::getMoves)).isEqualTo(changedMoves.get());
+        assertThat(sut.size()).isEqualTo(THREADS * GAMES_PER_THREAD + 1);
+        for (UUID game : added.keySet()) {
+            if (!game.equals(id)) {
+                assertThat(sut.apply(game, Game::getMoves)).isZero();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class DirectionTest {
+
+    @DisplayName("Direction.fromCodes parses upper and lower case move strings")
+    @Test
+    void fromCodesParsesMoveString() {
+        Direction[] result = Direction.fromCodes("LLURdd");
+
+        assertThat(result).containsExactly(Direction.left, Direction.left, Direction.up,
+                Direction.right, Direction.down, Direction.down);
+    }
+
+    @DisplayName("Direction.fromCode when code is unknown throws IllegalArgumentException")
+    @Test
+    void fromCodeWithUnknownCodeThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Direction.fromCode('X'));
+    }
+}
@@ -0,0 +1,84 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class ExpectimaxSolverTest {
+
+    private final ExpectimaxSolver sut = new ExpectimaxSolver(2, Duration.ofSeconds(10));
+
+    @DisplayName("ExpectimaxSolver.solve when no move is possible returns no move")
+    @Test
+    void solveWithStuckBoardReturnsNoMove() {
+        Game game = new BitboardGame(new int[][]{
+                {2, 4, 2, 4},
+                {4, 2, 4, 2},
+                {2, 4, 2, 4},
+                {4, 2, 4, 2}}, new SplitMixRandom(1234));
+
+        SolverResult result = sut.solve(game);
+
+        assertThat(result.hasMove()).isFalse();
+    }
+
+    @DisplayName("ExpectimaxSolver.solve when only one move is possible returns that move")
+    @Test
+    void solveWithSingleLegalMoveReturnsIt() {
+        Game game = new BitboardGame(new int[][]{
+                {0, 0, 0, 0},
+                {4, 2, 4, 2},
+                {2, 4, 2, 4},
+                {4, 2, 4, 2}}, new SplitMixRandom(1234));
+
+        SolverResult result = sut.solve(game);
+
+        assertThat(result.direction()).isEqualTo(Direction.left);
+        assertThat(result.depth()).isEqualTo(2);
+        assertThat(result.nodes()).isPositive();
+    }
+
+    @DisplayName("ExpectimaxSolver.solve plays a game far beyond random play")
+    @Test
+    void solvePlaysGoodGame() {
+        BitboardGame game = new BitboardGame(1234);
+        game.initialize();
+
+        for (int i = 0; i < 1000 && !game.isOver(); i++) {
+            SolverResult result = sut.solve(game);
+            if (!result.hasMove()) break;
+            game.move(result.direction());
+        }
+
+        // random moves end this game at a 32 tile
+        assertThat(Bitboard.toValue(Bitboard.maxExponent(game.getBoard()))).isGreaterThanOrEqualTo(1024);
+    }
+
+    @DisplayName("ExpectimaxSolver.solve with tiny time budget still completes the first depth")
+    @Test
+    void solveWithTinyBudgetReturnsMove() {
+        ExpectimaxSolver solver = new ExpectimaxSolver(8, Duration.ofNanos(1));
+        BitboardGame game = new BitboardGame(1234);
+        game.initialize();
+
+        SolverResult result = solver.solve(game);
+
+        assertThat(result.hasMove()).isTrue();
+        assertThat(result.depth()).isEqualTo(1);
+    }
+
+    @DisplayName("TranspositionTable.get returns stored values for equal or shallower depth only")
+    @Test
+    void transpositionTableRespectsDepth() {
+        TranspositionTable table = new TranspositionTable(16);
+
+        table.put(0x1234L, 3, 42f);
+
+        assertThat(table.get(0x1234L, 2)).isEqualTo(42f);
+        assertThat(table.get(0x1234L, 4)).isNaN();
+        assertThat(table.get(0x4321L, 1)).isNaN();
+    }
+}
@@ -0,0 +1,265 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class GameActionsTest {
+
+    private final GameRegistry games = new GameRegistry(10, Duration.ofHours(1), Duration.ofHours(1));
+    private final Metrics metrics = new Metrics();
+    private final GameActions sut = new GameActions(games, null, new ExpectimaxSolver(2, Duration.ofSeconds(10)),
+            null, metrics, 0);
+
+    @DisplayName("GameActions.page for a new game sends the rendered page")
+    @Test
+    void pageNewSendsPage() throws IOException {
+        RecordingResponse response = new RecordingResponse();
+
+        sut.page(Map.of("action", "new")::get, response);
+
+        assertThat(response.status).isEqualTo(200);
+        assertThat(response.contentType).isEqualTo(GameActions.HTML_CONTENT_TYPE);
+        assertThat(response.text()).contains("<html");
+        assertThat(games.size()).isEqualTo(1);
+    }
+
+    @DisplayName("GameActions.page for a hint on a 4x4 game renders the searched move")
+    @Test
+    void pageHintRendersSearchedMove() throws IOException {
+        Game game = new BitboardGame(1234);
+        game.initialize();
+        UUID id = games.add(game);
+        RecordingResponse response = new RecordingResponse();
+
+        sut.page(Map.of("id", id.toString(), "action", "hint")::get, response);
+
+        assertThat(response.status).isEqualTo(200);
+        assertThat(response.text()).contains("Hint:");
+        assertThat(metrics.getHints()).isOne();
+    }
+
+    @DisplayName("GameActions.page for a hint when the game moved during the search renders no hint")
+    @Test
+    void pageHintForMovedGameRendersNoHint() throws IOException {
+        Game game = new BitboardGame(1234);
+        game.initialize();
+        UUID id = games.add(game);
+        AtomicInteger accesses = new AtomicInteger();
+        // another request moves the game between the snapshot and the page
+        GameActions actions = new GameActions(new ForwardingStore(games) {
+            @Override
+            public <T> T apply(UUID gameId, Function<Game, T> action) {
+                if (accesses.incrementAndGet() == 2) {
+                    games.apply(gameId, g -> {
+                        for (Direction direction : Direction.values()) {
+                            if (MoveResult.changed(g.move(direction))) break;
+                        }
+                        return null;
+                    });
+                }
+                return super.apply(gameId, action);
+            }
+        }, null, new ExpectimaxSolver(2, Duration.ofSeconds(10)), null, metrics, 0);
+        RecordingResponse response = new RecordingResponse();
+
+        actions.page(Map.of("id", id.toString(), "action", "hint")::get, response);
+
+        assertThat(accesses).hasValue(2);
+        assertThat(response.status).isEqualTo(200);
+        assertThat(response.text()).doesNotContain("Hint:");
+        assertThat(metrics.getHints()).isZero();
+    }
+
+    @DisplayName("GameActions.page for a hint on a game neither solver nor tablebase covers renders no hint")
+    @Test
+    void pageHintForUncoveredGameRendersNoHint() throws IOException {
+        Game game = new GameImpl(3, 256, new SplitMixRandom(1234));
+        game.initialize();
+        UUID id = games.add(game);
+        RecordingResponse response = new RecordingResponse();
+
+        sut.page(Map.of("id", id.toString(), "action", "hint")::get, response);
+
+        assertThat(response.status).isEqualTo(200);
+        assertThat(response.text()).doesNotContain("Hint:");
+        assertThat(metrics.getHints()).isZero();
+    }
+
+    @DisplayName("GameActions.api for a move that does not change the board sends no content")
+    @Test
+    void apiUnchangedMoveSendsNoContent() throws IOException {
+        UUID id = games.add(new GameImpl(new int[][]{{2, 0}, {0, 0}}, 2048, 0, 0, 0, new SplitMixRandom(1)));
+        RecordingResponse response = new RecordingResponse();
+
+        sut.api(Map.of("id", id.toString(), "action", "left")::get, response);
+
+        assertThat(response.status).isEqualTo(204);
+    }
+
+    @DisplayName("GameActions.api for an unknown game sends 410 with a JSON error")
+    @Test
+    void apiUnknownGameSendsGone() throws IOException {
+        RecordingResponse response = new RecordingResponse();
+
+        sut.api(Map.of("id", UUID.randomUUID().toString(), "action", "up")::get, response);
+
+        assertThat(response.status).isEqualTo(410);
+        assertThat(response.contentType).isEqualTo(GameStateEncoder.JSON_CONTENT_TYPE);
+        assertThat(response.text()).contains("game expired");
+    }
+
+    @DisplayName("GameActions.page for a malformed id sends 400")
+    @Test
+    void pageMalformedIdSendsBadRequest() throws IOException {
+        RecordingResponse response = new RecordingResponse();
+
+        sut.page(Map.of("id", "nope")::get, response);
+
+        assertThat(response.status).isEqualTo(400);
+        assertThat(response.text()).isEqualTo("invalid request\n");
+    }
+
+    @DisplayName("GameActions.api for a move sequence counts its changed and unchanged moves")
+    @Test
+    void apiMovesCountsEveryMove() throws IOException {
+        UUID id = games.add(new GameImpl(new int[][]{{2, 0}, {0, 0}}, 2048, 0, 0, 0, new SplitMixRandom(1)));
+        RecordingResponse response = new RecordingResponse();
+
+        sut.api(Map.of("id", id.toString(), "moves", "LLR")::get, response);
+
+        assertThat(response.status).isEqualTo(200);
+        assertThat(metrics.getMoves()).isEqualTo(3);
+        assertThat(metrics.getUnchangedMoves()).isEqualTo(2);
+    }
+
+    @DisplayName("GameActions.api for a traced move sequence sends one state per changed move")
+    @Test
+    void apiTracedMovesSendsStates() throws IOException {
+        UUID id = games.add(new GameImpl(new int[][]{{2, 0}, {0, 0}}, 2048, 0, 0, 0, new SplitMixRandom(1)));
+        RecordingResponse response = new RecordingResponse();
+
+        sut.api(Map.of("id", id.toString(), "moves", "LR", "trace", "true")::get, response);
+
+        assertThat(response.status).isEqualTo(200);
+        assertThat(response.contentType).isEqualTo(GameActions.NDJSON_CONTENT_TYPE);
+        assertThat(response.text().lines()).hasSize(2);
+    }
+
+    @DisplayName("GameActions.api for a traced move sequence sends after releasing the game")
+    @Test
+    void apiTracedMovesSendsAfterRelease() throws Exception {
+        UUID id = games.add(new GameImpl(new int[][]{{2, 0}, {0, 0}}, 2048, 0, 0, 0, new SplitMixRandom(1)));
+        CompletableFuture<Integer> moves = new CompletableFuture<>();
+        RecordingResponse response = new RecordingResponse() {
+            @Override
+            public void send(int status, String contentType, byte[] body) {
+                super.send(status, contentType, body);
+                // another request for the game, blocked for good if the sender still held it
+                moves.completeAsync(() -> games.apply(id, Game::getMoves));
+            }
+        };
+
+        sut.api(Map.of("id", id.toString(), "moves", "LR", "trace", "true")::get, response);
+
+        assertThat(moves.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+
+    private static class ForwardingStore implements GameStore {
+        private final GameStore store;
+
+        ForwardingStore(GameStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public UUID add(Game game) {
+            return store.add(game);
+        }
+
+        @Override
+        public void add(UUID id, Game game) {
+            store.add(id, game);
+        }
+
+        @Override
+        public void setRemovalListener(Consumer<Game> removalListener) {
+            store.setRemovalListener(removalListener);
+        }
+
+        @Override
+        public <T> T apply(UUID id, Function<Game, T> action) {
+            return store.apply(id, action);
+        }
+
+        @Override
+        public void forEach(BiConsumer<UUID, Game> action) {
+            store.forEach(action);
+        }
+
+        @Override
+        public void evictExpired() {
+            store.evictExpired();
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+
+        @Override
+        public int getMaxSize() {
+            return store.getMaxSize();
+        }
+
+        @Override
+        public long getExpiredEvictions() {
+            return store.getExpiredEvictions();
+        }
+
+        @Override
+        public long getCapacityEvictions() {
+            return store.getCapacityEvictions();
+        }
+    }
+
+    private static class RecordingResponse implements GameActions.Response {
+        int status;
+        String contentType;
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        @Override
+        public void send(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body.writeBytes(body);
+        }
+
+        @Override
+        public void sendNoContent() {
+            status = 204;
+        }
+
+        @Override
+        public void failed(RuntimeException e) {
+        }
+
+        String text() {
+            return body.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class GameAllocationTest {
+
+    private static final int MOVES = 100_000;
+    // a game lasts about a hundred changed moves, so this many are always enough for MOVES
+    private static final int GAMES = 4_000;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @DisplayName("GameImpl.move does not allocate in steady state")
+    @Test
+    void gameImplMoveDoesNotAllocate() {
+        assertThat(allocatedBytes(GameImpl::new)).isZero();
+    }
+
+    @DisplayName("BitboardGame.move does not allocate in steady state")
+    @Test
+    void bitboardGameMoveDoesNotAllocate() {
+        assertThat(allocatedBytes(BitboardGame::new)).isZero();
+    }
+
+    // the games are created up front, so only moves that changed a live board are measured
+    private long allocatedBytes(LongFunction<Game> factory) {
+        play(games(factory, 0));
+        Game[] games = games(factory, GAMES);
+        threads.getCurrentThreadAllocatedBytes();
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        int changed = play(games);
+        long after = threads.getCurrentThreadAllocatedBytes();
+
+        assertThat(changed).isEqualTo(MOVES);
+        return after - before;
+    }
+
+    private static Game[] games(LongFunction<Game> factory, long firstSeed) {
+        Game[] games = new Game[GAMES];
+        for (int i = 0; i < GAMES; i++) {
+            games[i] = factory.apply(firstSeed + i);
+            games[i].initialize();
+        }
+        return games;
+    }
+
+    // returns the number of changed moves, MOVES unless the games ran out
+    private static int play(Game[] games) {
+        int changed = 0;
+        int current = 0;
+        for (int i = 0; changed < MOVES && current < games.length; i++) {
+            Game game = games[current];
+            if (MoveResult.changed(game.move(DIRECTIONS[i & 3]))) {
+                changed++;
+            }
+            if (game.isOver()) {
+                current++;
+            }
+        }
+        return changed;
+    }
+}
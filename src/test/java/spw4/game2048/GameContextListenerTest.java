@@ -0,0 +1,41 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class GameContextListenerTest {
+
+    @DisplayName("GameContextListener.newRequestExecutor runs requests concurrently on their own threads")
+    @Test
+    void newRequestExecutorRunsConcurrently() throws Exception {
+        ExecutorService sut = GameContextListener.newRequestExecutor(4);
+        Thread caller = Thread.currentThread();
+        CountDownLatch started = new CountDownLatch(4);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        for (int i = 0; i < 4; i++) {
+            sut.execute(() -> {
+                threads.add(Thread.currentThread());
+                started.countDown();
+                try {
+                    // only returns if all four run at the same time
+                    started.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        sut.shutdown();
+        assertThat(sut.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(threads).hasSize(4).doesNotContain(caller);
+    }
+}
@@ -21,12 +21,35 @@ final class GameImplTest {
         sut = new GameImpl();
     }
 
-    @DisplayName("GameImpl.ctor when called, random is not null")
+    @DisplayName("GameImpl.ctor with the same seed plays the same game")
     @Test
-    void ctorRandomIsNotNull() {
-        new GameImpl();
+    void ctorWithSameSeedPlaysSameGame() {
+        GameImpl first = new GameImpl(42);
+        GameImpl second = new GameImpl(42);
+        first.initialize();
+        second.initialize();
+
+        for (int i = 0; i < 50; i++) {
+            first.move(Direction.values()[i & 3]);
+            second.move(Direction.values()[i & 3]);
+        }
 
-        assertThat(GameImpl.random).isNotNull();
+        assertThat(second.toString()).isEqualTo(first.toString());
+    }
+
+    @DisplayName("GameImpl.ctor when a game is created, other games keep their random sequence")
+    @Test
+    void ctorDoesNotResetOtherGames() {
+        GameImpl expected = new GameImpl(42);
+        GameImpl sut = new GameImpl(42);
+        expected.initialize();
+        sut.initialize();
+
+        new GameImpl(42).initialize();
+        expected.move(Direction.left);
+        sut.move(Direction.left);
+
+        assertThat(sut.toString()).isEqualTo(expected.toString());
     }
 
     @DisplayName("GameImpl.initialize when called, tiles count is equal to 2")
@@ -40,7 +63,7 @@ final class GameImplTest {
     @DisplayName("GameImpl.initialize when called, tiles are placed at the correct position")
     @Test
     void initializeTilesArePlaced() {
-        GameImpl.random = new IntRandomStub(List.of(0, 1, 0, 2, 2, 0));
+        sut = new GameImpl(new IntRandomStub(List.of(40, 90)));
 
         sut.initialize();
 
@@ -51,7 +74,7 @@ final class GameImplTest {
     @DisplayName("GameImpl.initialize when called, tiles are placed with the correct values")
     @Test
     void initializeTilesArePlacedWithCorrectNumber() {
-        GameImpl.random = new IntRandomStub(List.of(0, 1, 5, 2, 2, 9));
+        sut = new GameImpl(new IntRandomStub(List.of(45, 99)));
 
         sut.initialize();
 
@@ -83,7 +106,9 @@ final class GameImplTest {
     @DisplayName("GameImpl.isWon when one tile is 2048 return true")
     @Test
     void isWonWhenTileIs2048ReturnsTrue() {
-        sut.getGameBoard()[2][3] = 2048;
+        int[][] gameBoard = new int[4][4];
+        gameBoard[2][3] = 2048;
+        sut = new GameImpl(gameBoard, new SplitMixRandom(1234));
 
         boolean result = sut.isWon();
 
@@ -93,38 +118,128 @@ final class GameImplTest {
     @DisplayName("GameImpl.isWon when no tile is 2048 return true")
     @Test
     void isWonWhenNoTileIsReturnsFalse() {
-        sut.getGameBoard()[2][3] = 1024;
-        sut.getGameBoard()[0][2] = 4;
+        int[][] gameBoard = new int[4][4];
+        gameBoard[2][3] = 1024;
+        gameBoard[0][2] = 4;
+        sut = new GameImpl(gameBoard, new SplitMixRandom(1234));
 
         boolean result = sut.isWon();
 
         assertThat(result).isFalse();
     }
 
-    @DisplayName("GameImpl.isOver when all tiles are full returns true")
+    @DisplayName("GameImpl.isWon when 2048 is reached by a merge returns true")
+    @Test
+    void isWonWhenMergedTo2048ReturnsTrue() {
+        int[][] gameBoard = new int[4][4];
+        gameBoard[0][0] = 1024;
+        gameBoard[1][0] = 1024;
+        sut = new GameImpl(gameBoard, new SplitMixRandom(1234));
+
+        sut.move(Direction.left);
+
+        assertThat(sut.isWon()).isTrue();
+    }
+
+    @DisplayName("GameImpl.isOver when all tiles are full and nothing can merge returns true")
     @Test
     void isOverWhenTilesAreFullReturnsTrue() {
-        int[][] gameBoard = sut.getGameBoard();
+        sut = new GameImpl(new int[][]{
+                {2, 4, 2, 4},
+                {4, 2, 4, 2},
+                {2, 4, 2, 4},
+                {4, 2, 4, 2}}, new SplitMixRandom(1234));
+
+        boolean result = sut.isOver();
+
+        assertThat(result).isTrue();
+    }
+
+    @DisplayName("GameImpl.isOver when all tiles are full but can merge returns false")
+    @Test
+    void isOverWhenTilesAreFullButCanMergeReturnsFalse() {
+        int[][] gameBoard = new int[4][4];
         for (var ints : gameBoard) {
             Arrays.fill(ints, 2);
         }
+        sut = new GameImpl(gameBoard, new SplitMixRandom(1234));
 
         boolean result = sut.isOver();
 
-        assertThat(result).isTrue();
+        assertThat(result).isFalse();
     }
 
     @DisplayName("GameImpl.isOver when not all tiles are full returns false")
     @Test
     void isOverWhenNotAllTilesAreFullReturnsFalse() {
-        sut.getGameBoard()[2][3] = 1024;
-        sut.getGameBoard()[0][2] = 4;
+        int[][] gameBoard = new int[4][4];
+        gameBoard[2][3] = 1024;
+        gameBoard[0][2] = 4;
+        sut = new GameImpl(gameBoard, new SplitMixRandom(1234));
 
         boolean result = sut.isOver();
 
         assertThat(result).isFalse();
     }
 
+    @DisplayName("GameImpl.ctor when size is out of range throws IllegalArgumentException")
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({"1", "9"})
+    void ctorWithInvalidSizeThrowsException(int size) {
+        assertThrows(IllegalArgumentException.class,
+                () -> new GameImpl(size, 2048, new SplitMixRandom(1234)));
+    }
+
+    @DisplayName("GameImpl.initialize on a 8x8 board places two tiles")
+    @Test
+    void initializeOnLargestBoardPlacesTwoTiles() {
+        sut = new GameImpl(8, 8192, new SplitMixRandom(1234));
+
+        sut.initialize();
+
+        assertThat(sut.getSize()).isEqualTo(8);
+        assertThat(sut.getTilesCount()).isEqualTo(2);
+    }
+
+    @DisplayName("GameImpl.move on a 5x5 board merges along the whole row")
+    @Test
+    void moveOnFiveByFiveBoardMergesRow() {
+        sut = new GameImpl(new int[][]{
+                {2, 0, 0, 0, 0},
+                {2, 0, 0, 0, 0},
+                {4, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0},
+                {4, 0, 0, 0, 0}}, new IntRandomStub(List.of(-1)));
+
+        long result = sut.move(Direction.left);
+
+        assertThat(result).isEqualTo(MoveResult.of(2, 12));
+        assertThat(sut.getValueAt(0, 0)).isEqualTo(4);
+        assertThat(sut.getValueAt(1, 0)).isEqualTo(8);
+        assertThat(sut.getValueAt(2, 0)).isZero();
+    }
+
+    @DisplayName("GameImpl.isWon on a new 3x3 game with win tile 256 returns false")
+    @Test
+    void isWonWithCustomWinTileReturnsFalse() {
+        sut = new GameImpl(3, 256, new IntRandomStub(List.of(0, 10, -1)));
+        sut.initialize();
+
+        assertThat(sut.isWon()).isFalse();
+        assertThat(sut.getWinTile()).isEqualTo(256);
+    }
+
+    @DisplayName("GameImpl.isOver on a full 3x3 board without merges returns true")
+    @Test
+    void isOverOnFullThreeByThreeBoardReturnsTrue() {
+        sut = new GameImpl(new int[][]{
+                {2, 4, 2},
+                {4, 2, 4},
+                {2, 4, 256}}, new SplitMixRandom(1234));
+
+        assertThat(sut.isOver()).isTrue();
+    }
+
     @DisplayName("GameImpl.getMoves returns zero after initialize")
     @Test
     void getMovesReturnsZeroAfterInitialize() {
@@ -136,6 +251,8 @@ final class GameImplTest {
     @DisplayName("GameImpl.getMoves returns one after one move")
     @Test
     void getMovesReturnsOneAfterMoveInitialize() {
+        sut = new GameImpl(new IntRandomStub(List.of(45, 99)));
+        sut.initialize();
         sut.move(Direction.down);
 
         int result = sut.getMoves();
@@ -156,7 +273,7 @@ final class GameImplTest {
     @DisplayName("GameImpl.toString returns valid String after initialize")
     @Test
     void toStringReturnsValidStringAfterInitialize() {
-        GameImpl.random = new IntRandomStub(List.of(0, 1, 5, 2, 2, 9));
+        sut = new GameImpl(new IntRandomStub(List.of(45, 99)));
         sut.initialize();
 
         String result = sut.toString();
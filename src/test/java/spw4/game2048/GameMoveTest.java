@@ -0,0 +1,452 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+abstract class GameMoveTest {
+
+    private Game sut;
+
+    protected abstract Game createGame(RandomSource random);
+
+    protected abstract Game createGame(int historyDepth, RandomSource random);
+
+    protected abstract Game createGame(int[][] gameBoard, RandomSource random);
+
+    protected abstract int getTilesCount(Game game);
+
+    @DisplayName("Game.move moves without merge")
+    @ParameterizedTest(name = "{2}: multiple per row/column {0}")
+    @MethodSource("generateMoveDataWithoutMerge")
+    void moveWithoutMerge(boolean multiple, List<Integer> randomValues, Direction direction,
+                          List<Integer> firstAssertValues, List<Integer> secondAssertValues) {
+        sut = createGame(new IntRandomStub(randomValues));
+        sut.initialize();
+
+        sut.move(direction);
+
+        assertThat(sut.getValueAt(firstAssertValues.get(0), firstAssertValues.get(1)))
+                .isEqualTo(firstAssertValues.get(2));
+        assertThat(sut.getValueAt(secondAssertValues.get(0), secondAssertValues.get(1)))
+                .isEqualTo(secondAssertValues.get(2));
+    }
+
+    private static Stream<Arguments> generateMoveDataWithoutMerge() {
+        return Stream.of(
+                Arguments.of(false, List.of(45, 99), Direction.left,
+                        List.of(0, 1, 2), List.of(0, 2, 4)),
+                Arguments.of(true, List.of(45, 69), Direction.left,
+                        List.of(0, 1, 2), List.of(1, 1, 4)),
+                Arguments.of(false, List.of(45, 99), Direction.right,
+                        List.of(3, 1, 2), List.of(3, 2, 4)),
+                Arguments.of(true, List.of(45, 69), Direction.right,
+                        List.of(2, 1, 2), List.of(3, 1, 4)),
+                Arguments.of(false, List.of(45, 99), Direction.up,
+                        List.of(0, 0, 2), List.of(2, 0, 4)),
+                Arguments.of(true, List.of(45, 119), Direction.up,
+                        List.of(0, 0, 2), List.of(0, 1, 4)),
+                Arguments.of(false, List.of(45, 99), Direction.down,
+                        List.of(0, 3, 2), List.of(2, 3, 4)),
+                Arguments.of(true, List.of(45, 119), Direction.down,
+                        List.of(0, 2, 2), List.of(0, 3, 4)));
+    }
+
+    @DisplayName("Game.undo restores board, score and moves of the previous state and redo returns")
+    @Test
+    void undoRestoresPreviousStateAndRedoReturns() {
+        sut = createGame(8, new SplitMixRandom(1234));
+        sut.initialize();
+        for (int i = 0; i < 5; i++) {
+            sut.move(Direction.values()[i & 3]);
+        }
+        String before = sut.toString();
+        for (int i = 0; !MoveResult.changed(sut.move(Direction.values()[i])); i++) {
+        }
+        String after = sut.toString();
+
+        boolean undone = sut.undo();
+
+        assertThat(undone).isTrue();
+        assertThat(sut.toString()).isEqualTo(before);
+        assertThat(sut.redo()).isTrue();
+        assertThat(sut.toString()).isEqualTo(after);
+        assertThat(sut.redo()).isFalse();
+    }
+
+    @DisplayName("Game.undo steps back at most history depth moves")
+    @Test
+    void undoStopsAtHistoryDepth() {
+        sut = createGame(3, new SplitMixRandom(1234));
+        sut.initialize();
+        int moves = 0;
+        for (int i = 0; moves < 10; i++) {
+            if (MoveResult.changed(sut.move(Direction.values()[i & 3]))) {
+                moves++;
+            }
+        }
+
+        int undone = 0;
+        while (sut.undo()) {
+            undone++;
+        }
+
+        assertThat(undone).isEqualTo(3);
+        assertThat(sut.getMoves()).isEqualTo(7);
+        assertThat(sut.getHistoryDepth()).isEqualTo(3);
+    }
+
+    @DisplayName("Game.redo after a new move returns false")
+    @Test
+    void redoAfterMoveReturnsFalse() {
+        sut = createGame(4, new SplitMixRandom(1234));
+        sut.initialize();
+        for (int i = 0; sut.getMoves() < 3; i++) {
+            sut.move(Direction.values()[i & 3]);
+        }
+        sut.undo();
+        sut.undo();
+
+        for (int i = 0; !MoveResult.changed(sut.move(Direction.values()[i & 3])); i++) {
+        }
+
+        assertThat(sut.redo()).isFalse();
+        assertThat(sut.getMoves()).isEqualTo(2);
+        assertThat(sut.undo()).isTrue();
+    }
+
+    @DisplayName("Game.undo without history returns false")
+    @Test
+    void undoWithoutHistoryReturnsFalse() {
+        sut = createGame(new SplitMixRandom(1234));
+        sut.initialize();
+        sut.move(Direction.left);
+        sut.move(Direction.up);
+
+        assertThat(sut.undo()).isFalse();
+        assertThat(sut.getHistoryDepth()).isZero();
+    }
+
+    @DisplayName("Game.move generates new value after move")
+    @Test
+    void moveGeneratesNewValue() {
+        sut = createGame(new IntRandomStub(
+                List.of(45, 99, 15, 119)));
+        sut.initialize();
+
+        sut.move(Direction.down);
+        sut.move(Direction.down);
+
+        assertThat(getTilesCount(sut)).isEqualTo(4);
+    }
+
+    @DisplayName("Game.move generates new value on the selected empty position")
+    @Test
+    void moveGeneratesNewValueIfPositionIsEmpty() {
+        sut = createGame(new IntRandomStub(
+                List.of(45, 99, 125)));
+        sut.initialize();
+
+        sut.move(Direction.down);
+
+        assertThat(getTilesCount(sut)).isEqualTo(3);
+        assertThat(sut.getValueAt(1, 3)).isEqualTo(2);
+    }
+
+    @DisplayName("Game.move move with full un-movable gameBoard stays over")
+    @Test
+    void moveWithFullGameBoardStaysOver() {
+        sut = createGame(new int[][] {
+                {2, 4, 2, 4},
+                {4, 2, 4, 2},
+                {2, 4, 2, 4},
+                {4, 2, 4, 2}}, new SplitMixRandom(1234));
+
+        sut.move(Direction.down);
+        sut.move(Direction.left);
+
+        assertThat(sut.isOver()).isTrue();
+    }
+
+    @DisplayName("Game.move move changes nothing if value is already on correct position")
+    @ParameterizedTest(name = "{2} does not move")
+    @MethodSource("generateMoveWithPerfectData")
+    void moveDoesNotMoveOnCorrectPosition(int x, int y, Direction direction) {
+        int first = y * 4 + x;
+        int second = first < 10 ? 9 : 10;
+        sut = createGame(new IntRandomStub(
+                List.of(first * 10 + 5, second * 10 + 2)));
+        sut.initialize();
+
+        sut.move(direction);
+
+        assertThat(sut.getValueAt(x, y)).isNotEqualTo(0);
+    }
+
+    private static Stream<Arguments> generateMoveWithPerfectData() {
+        return Stream.of(
+                Arguments.of(0, 3, Direction.left),
+                Arguments.of(3, 0, Direction.right),
+                Arguments.of(0, 0, Direction.up),
+                Arguments.of(3, 3, Direction.down));
+    }
+
+    @DisplayName("Game.move when nothing moves returns unchanged and does not spawn")
+    @Test
+    void moveWithoutChangeReturnsUnchanged() {
+        sut = createGame(new int[][]{
+                {2, 0, 0, 0},
+                {4, 0, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0}}, new IntRandomStub(List.of(-1)));
+
+        long result = sut.move(Direction.up);
+
+        assertThat(result).isEqualTo(MoveResult.UNCHANGED);
+        assertThat(getTilesCount(sut)).isEqualTo(2);
+        assertThat(sut.getMoves()).isZero();
+    }
+
+    @DisplayName("Game.move when tiles merge returns merges and score delta")
+    @Test
+    void moveWithMergeReturnsMergesAndScoreDelta() {
+        sut = createGame(new int[][]{
+                {2, 4, 0, 0},
+                {2, 4, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 2, 0}}, new IntRandomStub(List.of(-1)));
+
+        long result = sut.move(Direction.left);
+
+        assertThat(MoveResult.changed(result)).isTrue();
+        assertThat(MoveResult.merges(result)).isEqualTo(2);
+        assertThat(MoveResult.scoreDelta(result)).isEqualTo(12);
+        assertThat(sut.getMoves()).isOne();
+    }
+
+    @DisplayName("Game.move when tiles only slide returns changed without merges")
+    @Test
+    void moveWithSlideReturnsChanged() {
+        sut = createGame(new int[][]{
+                {0, 0, 0, 0},
+                {2, 0, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0}}, new IntRandomStub(List.of(-1)));
+
+        long result = sut.move(Direction.left);
+
+        assertThat(result).isEqualTo(MoveResult.of(0, 0));
+    }
+
+    @DisplayName("Game.merge moves with merge")
+    @ParameterizedTest(name = "{2}: multiple per row/column {0}")
+    @MethodSource("generateMoveDataWithMerge")
+    void moveWithMerge(boolean multiple, int[][] gameBoard, Direction direction,
+                       int[][] assertGameBoard, int tilesCount) {
+        sut = createGame(gameBoard, new IntRandomStub(List.of(-1)));
+
+        sut.move(direction);
+
+        assertThat(getTilesCount(sut)).isEqualTo(tilesCount);
+        for (int y = 0; y < gameBoard.length; y++) {
+            for (int x = 0; x < gameBoard.length; x++) {
+                if (!(x == 3 && y == 3)) {
+                    assertThat(assertGameBoard[x][y])
+                            .isEqualTo(sut.getValueAt(x, y));
+                }
+            }
+        }
+    }
+
+    private static Stream<Arguments> generateMoveDataWithMerge() {
+        return Stream.of(
+                Arguments.of(false,
+                        new int[][]{
+                                {0, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {2, 0, 0, 0}},
+                        Direction.left,
+                        new int[][]{
+                                {4, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        2),
+                Arguments.of(true,
+                        new int[][]{
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0}},
+                        Direction.left,
+                        new int[][]{
+                                {4, 0, 0, 0},
+                                {4, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        3),
+                Arguments.of(false,
+                        new int[][]{
+                                {0, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {2, 0, 0, 0}},
+                        Direction.right,
+                        new int[][]{
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {4, 0, 0, 0}},
+                        2),
+                Arguments.of(true,
+                        new int[][]{
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0}},
+                        Direction.right,
+                        new int[][]{
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {4, 0, 0, 0},
+                                {4, 0, 0, 0}},
+                        3),
+                Arguments.of(false,
+                        new int[][]{
+                                {0, 2, 0, 2},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        Direction.up,
+                        new int[][]{
+                                {4, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        2),
+                Arguments.of(true,
+                        new int[][]{
+                                {2, 2, 2, 2},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        Direction.up,
+                        new int[][]{
+                                {4, 4, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        3),
+                Arguments.of(false,
+                        new int[][]{
+                                {0, 2, 0, 2},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        Direction.down,
+                        new int[][]{
+                                {0, 0, 0, 4},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        2),
+                Arguments.of(true,
+                        new int[][]{
+                                {2, 2, 2, 2},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        Direction.down,
+                        new int[][]{
+                                {0, 0, 4, 4},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        3)
+        );
+    }
+
+    @DisplayName("Game.merge moves with merge has correct score")
+    @ParameterizedTest(name = "{2}: multiple per row/column {0}")
+    @MethodSource("generateMoveDataWithMergeAndScore")
+    void moveWithMergeHasCorrectScore(boolean multiple, int[][] gameBoard,
+                                      Direction direction, int score) {
+        sut = createGame(gameBoard, new IntRandomStub(List.of(-1)));
+
+        sut.move(direction);
+
+        assertThat(sut.getScore()).isEqualTo(score);
+    }
+
+    private static Stream<Arguments> generateMoveDataWithMergeAndScore() {
+        return Stream.of(
+                Arguments.of(false,
+                        new int[][]{
+                                {0, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {2, 0, 0, 0}},
+                        Direction.left, 4),
+                Arguments.of(true,
+                        new int[][]{
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0}},
+                        Direction.left, 8),
+                Arguments.of(false,
+                        new int[][]{
+                                {0, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {2, 0, 0, 0}},
+                        Direction.right, 4),
+                Arguments.of(true,
+                        new int[][]{
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0},
+                                {2, 0, 0, 0}},
+                        Direction.right, 8),
+                Arguments.of(false,
+                        new int[][]{
+                                {0, 2, 0, 2},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        Direction.up, 4),
+                Arguments.of(true,
+                        new int[][]{
+                                {2, 2, 2, 2},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        Direction.up, 8),
+                Arguments.of(false,
+                        new int[][]{
+                                {0, 2, 0, 2},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        Direction.down, 4),
+                Arguments.of(true,
+                        new int[][]{
+                                {2, 2, 2, 2},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0},
+                                {0, 0, 0, 0}},
+                        Direction.down, 8)
+
+
+        );
+    }
+}
@@ -0,0 +1,182 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class GameRegistryTest {
+
+    private static final int THREADS = 8;
+    private static final int MOVES_PER_THREAD = 5_000;
+
+    private final GameRegistry sut = new GameRegistry(
+            THREADS * MOVES_PER_THREAD, Duration.ofHours(1), Duration.ofHours(1));
+
+    @DisplayName("GameRegistry.apply when game does not exist throws GameExpiredException")
+    @Test
+    void applyWithUnknownIdThrowsException() {
+        assertThrows(GameExpiredException.class,
+                () -> sut.apply(UUID.randomUUID(), Game::getMoves));
+    }
+
+    @DisplayName("GameRegistry.apply when game was idle too long throws GameExpiredException")
+    @Test
+    void applyAfterIdleTimeoutThrowsException() {
+        AtomicLong clock = new AtomicLong();
+        GameRegistry registry = new GameRegistry(10, Duration.ofHours(1), Duration.ofMinutes(5), clock::get);
+        UUID id = registry.add(new BitboardGame(1234));
+
+        clock.set(Duration.ofMinutes(4).toNanos());
+        registry.apply(id, Game::getMoves);
+        clock.set(Duration.ofMinutes(10).toNanos());
+
+        assertThrows(GameExpiredException.class,
+                () -> registry.apply(id, Game::getMoves));
+        assertThat(registry.size()).isZero();
+        assertThat(registry.getExpiredEvictions()).isOne();
+    }
+
+    @DisplayName("GameRegistry.evictExpired removes games older than their time to live")
+    @Test
+    void evictExpiredRemovesGamesPastTimeToLive() {
+        AtomicLong clock = new AtomicLong();
+        GameRegistry registry = new GameRegistry(10, Duration.ofMinutes(10), Duration.ofMinutes(10), clock::get);
+        UUID old = registry.add(new BitboardGame(1234));
+        clock.set(Duration.ofMinutes(6).toNanos());
+        UUID young = registry.add(new BitboardGame(1234));
+        registry.apply(old, Game::getMoves);
+
+        clock.set(Duration.ofMinutes(11).toNanos());
+        registry.evictExpired();
+
+        assertThat(registry.size()).isOne();
+        assertThat(registry.apply(young, Game::getMoves)).isZero();
+        assertThat(registry.getExpiredEvictions()).isOne();
+    }
+
+    @DisplayName("GameRegistry.add when full evicts the least recently used games")
+    @Test
+    void addWhenFullEvictsLeastRecentlyUsed() {
+        AtomicLong clock = new AtomicLong();
+        GameRegistry registry = new GameRegistry(10, Duration.ofHours(1), Duration.ofHours(1), clock::get);
+        UUID[] ids = new UUID[10];
+        for (int i = 0; i < ids.length; i++) {
+            clock.incrementAndGet();
+            ids[i] = registry.add(new BitboardGame(i));
+        }
+        clock.incrementAndGet();
+        registry.apply(ids[0], Game::getMoves);
+
+        clock.incrementAndGet();
+        registry.add(new BitboardGame(1234));
+
+        assertThat(registry.size()).isEqualTo(9);
+        assertThat(registry.getCapacityEvictions()).isEqualTo(2);
+        assertThat(registry.apply(ids[0], Game::getMoves)).isZero();
+        assertThrows(GameExpiredException.class,
+                () -> registry.apply(ids[1], Game::getMoves));
+    }
+
+    @DisplayName("GameRegistry.apply returns the result of the action on the registered game")
+    @Test
+    void applyReturnsResultOfAction() {
+        Game game = new BitboardGame(1234);
+        UUID id = sut.add(game);
+
+        Game result = sut.apply(id, g -> g);
+
+        assertThat(result).isSameAs(game);
+    }
+
+    @DisplayName("GameRegistry.evictExpired passes every evicted game to the removal listener")
+    @Test
+    void evictExpiredNotifiesRemovalListener() {
+        AtomicLong clock = new AtomicLong();
+        GameRegistry registry = new GameRegistry(10, Duration.ofMinutes(10), Duration.ofMinutes(10), clock::get);
+        List<Game> removed = new CopyOnWriteArrayList<>();
+        registry.setRemovalListener(removed::add);
+        Game game = new BitboardGame(1234);
+        registry.add(game);
+
+        clock.set(Duration.ofMinutes(11).toNanos());
+        registry.evictExpired();
+
+        assertThat(removed).containsExactly(game);
+    }
+
+    @DisplayName("GameRegistry.apply from many threads on one game loses no moves")
+    @Test
+    void applyConcurrentlyLosesNoMoves() throws Exception {
+        UUID id = sut.add(new BitboardGame(1234));
+        Direction[] directions = Direction.values();
+        AtomicInteger changedMoves = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < MOVES_PER_THREAD; i++) {
+                Direction direction = directions[(thread + i) & 3];
+                if (MoveResult.changed(sut.apply(id, game -> game.move(direction)))) {
+                    changedMoves.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertThat(sut.apply(id, Game::getMoves)).isEqualTo(changedMoves.get());
+    }
+
+    @DisplayName("GameRegistry.add from many threads keeps every game")
+    @Test
+    void addConcurrentlyKeepsEveryGame() throws Exception {
+        List<UUID> ids = new CopyOnWriteArrayList<>();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < MOVES_PER_THREAD; i++) {
+                ids.add(sut.add(new BitboardGame(i)));
+            }
+            return null;
+        });
+
+        assertThat(sut.size()).isEqualTo(THREADS * MOVES_PER_THREAD);
+        assertThat(ids).doesNotHaveDuplicates();
+    }
+
+    private interface Worker {
+        Void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Callable<Void>> tasks = IntStream.range(0, THREADS)
+                    .mapToObj(thread -> (Callable<Void>) () -> {
+                        start.await();
+                        return worker.run(thread);
+                    })
+                    .collect(Collectors.toList());
+            List<Future<Void>> futures = tasks.stream().map(executor::submit).collect(Collectors.toList());
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package spw4.game2048;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+public final class GameRendererBenchmark {
+
+    private static final int ITERATIONS = 200_000;
+
+    public static void main(String[] args) throws IOException {
+        UUID id = UUID.randomUUID();
+        BitboardGame game = new BitboardGame(1234);
+        game.initialize();
+        for (int i = 0; i < 50; i++) {
+            game.move(Direction.values()[i & 3]);
+        }
+        GameRenderer renderer = GameRenderer.getInstance();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+
+        for (int round = 0; round < 5; round++) {
+            long legacy = measure(() -> {
+                out.reset();
+                out.write(LegacyGameRenderer.game2Html(id, game).getBytes(StandardCharsets.UTF_8));
+            });
+            long template = measure(() -> {
+                out.reset();
+                renderer.render(id, game, out);
+            });
+            System.out.printf("round %d: string renderer %,d ns/page, template renderer %,d ns/page%n",
+                    round, legacy, template);
+        }
+    }
+
+    private interface Render {
+        void run() throws IOException;
+    }
+
+    private static long measure(Render render) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            render.run();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+}
@@ -0,0 +1,92 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class GameRendererTest {
+
+    private final GameRenderer sut = GameRenderer.getInstance();
+
+    @DisplayName("GameRenderer.render writes the same page as the string renderer")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("generateGames")
+    void renderWritesSamePageAsStringRenderer(String name, Game game) throws IOException {
+        UUID id = UUID.randomUUID();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        sut.render(id, game, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(LegacyGameRenderer.game2Html(id, game));
+    }
+
+    @DisplayName("GameRenderer.render for a 5x5 game writes every cell and keeps the variant in the new game link")
+    @Test
+    void renderFiveByFiveWritesAllCells() throws IOException {
+        Game game = new GameImpl(5, 4096, new SplitMixRandom(1234));
+        game.initialize();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        GameRenderer.getInstance(5).render(UUID.randomUUID(), game, out);
+
+        String result = out.toString(StandardCharsets.UTF_8);
+        assertThat(result.split("bg-light\">", -1)).hasSize(26);
+        assertThat(result).contains("href=\"Game?action=new&size=5&win=4096\"");
+    }
+
+    @DisplayName("GameRenderer.render for a game with history writes the undo and redo links")
+    @Test
+    void renderWithHistoryWritesUndoAndRedo() throws IOException {
+        Game game = new BitboardGame(Game.DEFAULT_WIN_TILE, 8, new SplitMixRandom(1234));
+        game.initialize();
+        UUID id = UUID.randomUUID();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        sut.render(id, game, out);
+
+        String result = out.toString(StandardCharsets.UTF_8);
+        assertThat(result).contains("href=\"Game?id=" + id + "&action=undo\"");
+        assertThat(result).contains("href=\"Game?id=" + id + "&action=redo\"");
+    }
+
+    @DisplayName("GameRenderer.render when the game size does not match throws IllegalArgumentException")
+    @Test
+    void renderWithOtherSizeThrowsException() {
+        Game game = new GameImpl(3, 2048, new SplitMixRandom(1234));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> sut.render(UUID.randomUUID(), game, new ByteArrayOutputStream()));
+    }
+
+    private static Stream<Arguments> generateGames() {
+        BitboardGame running = new BitboardGame(1234);
+        running.initialize();
+        for (int i = 0; i < 20; i++) {
+            running.move(Direction.values()[i & 3]);
+        }
+
+        return Stream.of(
+                Arguments.of("running", running),
+                Arguments.of("lost", new BitboardGame(new int[][]{
+                        {2, 4, 2, 4},
+                        {4, 2, 4, 2},
+                        {2, 4, 2, 4},
+                        {4, 2, 4, 2}}, new SplitMixRandom(1234))),
+                Arguments.of("won", new BitboardGame(new int[][]{
+                        {2048, 4, 2, 4},
+                        {4, 2, 4, 2},
+                        {2, 4, 2, 4},
+                        {4, 2, 4, 1024}}, new SplitMixRandom(1234))));
+    }
+}
@@ -0,0 +1,153 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+final class GameStateEncoderTest {
+
+    private final UUID id = UUID.fromString("00000000-0000-0001-0000-000000000002");
+    private final Game game = new BitboardGame(new int[][]{
+            {2, 0, 0, 0},
+            {4, 8, 0, 0},
+            {0, 0, 0, 0},
+            {0, 0, 0, 2048}}, new SplitMixRandom(1234));
+
+    @DisplayName("GameStateEncoder.toJson writes board rows, score, moves and status")
+    @Test
+    void toJsonWritesState() {
+        String result = new String(GameStateEncoder.toJson(id, game), StandardCharsets.UTF_8);
+
+        assertThat(result).isEqualTo("{\"id\":\"00000000-0000-0001-0000-000000000002\","
+                + "\"board\":[[2,4,0,0],[0,8,0,0],[0,0,0,0],[0,0,0,2048]],"
+                + "\"score\":0,\"moves\":0,\"over\":false,\"won\":true}");
+    }
+
+    @DisplayName("GameStateEncoder.toBinary packs the board into nibbles")
+    @Test
+    void toBinaryPacksBoardIntoNibbles() {
+        ByteBuffer result = ByteBuffer.wrap(GameStateEncoder.toBinary(id, game));
+
+        assertThat(result.remaining()).isEqualTo(34);
+        assertThat(new UUID(result.getLong(), result.getLong())).isEqualTo(id);
+        assertThat(result.get()).isEqualTo((byte) 4);
+        byte[] board = new byte[8];
+        result.get(board);
+        assertThat(board).containsExactly(0x21, 0x00, 0x30, 0x00, 0x00, 0x00, 0x00, 0xB0);
+        assertThat(result.getInt()).isZero();
+        assertThat(result.getInt()).isZero();
+        assertThat(result.get()).isEqualTo((byte) 2);
+    }
+
+    @DisplayName("GameStateEncoder.toBinary for sizes other than 4 writes one exponent per byte")
+    @Test
+    void toBinaryWithOtherSizeWritesBytes() {
+        Game game = new GameImpl(new int[][]{
+                {2, 0, 0},
+                {0, 0, 0},
+                {0, 0, 8}}, new SplitMixRandom(1234));
+
+        ByteBuffer result = ByteBuffer.wrap(GameStateEncoder.toBinary(id, game));
+
+        assertThat(result.remaining()).isEqualTo(35);
+        result.position(16);
+        assertThat(result.get()).isEqualTo((byte) 3);
+        byte[] board = new byte[9];
+        result.get(board);
+        assertThat(board).containsExactly(1, 0, 0, 0, 0, 0, 0, 0, 3);
+    }
+
+    @DisplayName("GameStateEncoder.toBinary for a 5x5 board with 65536 keeps the neighbouring cells")
+    @Test
+    void toBinaryWithLargeTileKeepsNeighbours() {
+        Game game = new GameImpl(new int[][]{
+                {65536, 2, 0, 0, 0},
+                {4, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 131072}}, 1 << 20, 0, 0, 0, new SplitMixRandom(1234));
+
+        ByteBuffer result = ByteBuffer.wrap(GameStateEncoder.toBinary(id, game));
+
+        result.position(17);
+        byte[] board = new byte[25];
+        result.get(board);
+        assertThat(board[0]).isEqualTo((byte) 16);
+        assertThat(board[1]).isEqualTo((byte) 2);
+        assertThat(board[5]).isEqualTo((byte) 1);
+        assertThat(board[24]).isEqualTo((byte) 17);
+    }
+
+    @DisplayName("GameStateEncoder.toBinary for a 4x4 board beyond exponent 15 throws IllegalStateException")
+    @Test
+    void toBinaryWithOversizedNibbleThrowsException() {
+        Game game = new GameImpl(new int[][]{
+                {65536, 0, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0}}, 1 << 20, 0, 0, 0, new SplitMixRandom(1234));
+
+        assertThatThrownBy(() -> GameStateEncoder.toBinary(id, game)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @DisplayName("GameStateEncoder.toJson writes one row per board row")
+    @Test
+    void toJsonWritesRowsForBoardSize() {
+        Game game = new GameImpl(new int[][]{
+                {2, 0, 0},
+                {0, 0, 0},
+                {0, 0, 8}}, new SplitMixRandom(1234));
+
+        String result = new String(GameStateEncoder.toJson(id, game), StandardCharsets.UTF_8);
+
+        assertThat(result).contains("\"board\":[[2,0,0],[0,0,0],[0,0,8]]");
+    }
+
+    @DisplayName("GameStateEncoder.toDiff at first writes every cell that is not known to the client")
+    @Test
+    void toDiffWritesUnknownCells() {
+        byte[] sent = new byte[16];
+
+        ByteBuffer result = GameStateEncoder.toDiff(game, sent);
+
+        assertThat(result.get()).isEqualTo((byte) 2);
+        assertThat(result.getInt()).isZero();
+        assertThat(result.getInt()).isZero();
+        assertThat(result.get()).isEqualTo((byte) 4);
+        byte[] cells = new byte[8];
+        result.get(cells);
+        assertThat(cells).containsExactly(0, 1, 1, 2, 5, 3, 15, 11);
+        assertThat(result.hasRemaining()).isFalse();
+        assertThat(sent[15]).isEqualTo((byte) 11);
+    }
+
+    @DisplayName("GameStateEncoder.toDiff after a move writes only the changed cells")
+    @Test
+    void toDiffAfterMoveWritesChangedCells() {
+        Game game = new BitboardGame(new int[][]{
+                {0, 0, 0, 0},
+                {2, 0, 0, 0},
+                {0, 0, 0, 0},
+                {2, 0, 0, 0}}, new IntRandomStub(List.of(0)));
+        byte[] sent = new byte[16];
+        GameStateEncoder.toDiff(game, sent);
+
+        // the new tile lands on the first empty cell, which held a 2 before the move
+        game.move(Direction.left);
+        ByteBuffer result = GameStateEncoder.toDiff(game, sent);
+
+        assertThat(result.getInt(1)).isEqualTo(4);
+        assertThat(result.getInt(5)).isOne();
+        assertThat(result.get(9)).isEqualTo((byte) 2);
+        byte[] cells = new byte[4];
+        result.get(10, cells);
+        assertThat(cells).containsExactly(0, 2, 3, 0);
+    }
+}
@@ -0,0 +1,43 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class GameTest {
+
+    @DisplayName("Game.create for a 4x4 board returns the bitboard engine")
+    @Test
+    void createForFourByFourReturnsBitboardGame() {
+        Game result = Game.create(4, 4096, new SplitMixRandom(1234));
+
+        assertThat(result).isInstanceOf(BitboardGame.class);
+        assertThat(result.getWinTile()).isEqualTo(4096);
+    }
+
+    @DisplayName("Game.create for other sizes returns the generic engine")
+    @Test
+    void createForOtherSizesReturnsGameImpl() {
+        Game result = Game.create(6, 8192, new SplitMixRandom(1234));
+
+        assertThat(result).isInstanceOf(GameImpl.class);
+        assertThat(result.getSize()).isEqualTo(6);
+    }
+
+    @DisplayName("Game.create for a 4x4 board with a win tile beyond the bitboard range returns the generic engine")
+    @Test
+    void createWithLargeWinTileReturnsGameImpl() {
+        Game result = Game.create(4, 65536, new SplitMixRandom(1234));
+
+        assertThat(result).isInstanceOf(GameImpl.class);
+    }
+
+    @DisplayName("Game.create with an invalid win tile throws IllegalArgumentException")
+    @Test
+    void createWithInvalidWinTileThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Game.create(5, 1000, new SplitMixRandom(1234)));
+    }
+}
@@ -1,29 +1,22 @@
 package spw4.game2048;
 
 import java.util.Iterator;
-import java.util.Random;
 
-public final class IntRandomStub extends Random {
+public final class IntRandomStub implements RandomSource {
     private final Iterator<Integer> iterator;
     private final int defaultValue = 3;
 
+    // negative values count back from the bound, so -1 always returns bound - 1
     public IntRandomStub(Iterable<Integer> values) {
         this.iterator = values.iterator();
     }
 
     @Override
-    public int nextInt() {
+    public int nextInt(int bound) {
         if (!iterator.hasNext()) {
-            return 3;
+            return defaultValue;
         }
-        return iterator.next();
-    }
-
-    @Override
-    public int nextInt(int ignored) {
-        if (!iterator.hasNext()) {
-            return 3;
-        }
-        return iterator.next();
+        int value = iterator.next();
+        return value < 0 ? bound + value : value;
     }
 }
@@ -0,0 +1,54 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class LatencyHistogramTest {
+
+    @DisplayName("LatencyHistogram.index puts a value into a bucket whose bound is at most 1/16 above it")
+    @ParameterizedTest(name = "value {0}")
+    @ValueSource(longs = {0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789, Long.MAX_VALUE})
+    void indexBoundsValue(long value) {
+        long bound = LatencyHistogram.upperBound(LatencyHistogram.index(value));
+
+        assertThat(bound).isGreaterThanOrEqualTo(value);
+        assertThat(bound - value).isLessThanOrEqualTo(value / 16);
+    }
+
+    @DisplayName("LatencyHistogram.index increases with the value")
+    @Test
+    void indexIsMonotonic() {
+        for (long value = 1; value < 100_000; value++) {
+            assertThat(LatencyHistogram.index(value)).isGreaterThanOrEqualTo(LatencyHistogram.index(value - 1));
+        }
+    }
+
+    @DisplayName("LatencyHistogram.quantiles for uniform values returns values close to the exact quantiles")
+    @Test
+    void quantilesOfUniformValues() {
+        LatencyHistogram sut = new LatencyHistogram();
+        for (int value = 1; value <= 10_000; value++) {
+            sut.record(value);
+        }
+
+        long[] result = sut.quantiles(0.5, 0.9, 0.99, 1.0);
+
+        assertThat(result[0]).isBetween(5_000L, 5_000L + 5_000 / 16);
+        assertThat(result[1]).isBetween(9_000L, 9_000L + 9_000 / 16);
+        assertThat(result[2]).isBetween(9_900L, 10_000L);
+        assertThat(result[3]).isEqualTo(10_000L);
+        assertThat(sut.getCount()).isEqualTo(10_000L);
+        assertThat(sut.getSum()).isEqualTo(10_000L * 10_001 / 2);
+        assertThat(sut.getMax()).isEqualTo(10_000L);
+    }
+
+    @DisplayName("LatencyHistogram.quantiles without values returns zeros")
+    @Test
+    void quantilesWithoutValues() {
+        assertThat(new LatencyHistogram().quantiles(0.5, 0.99)).containsExactly(0, 0);
+    }
+}
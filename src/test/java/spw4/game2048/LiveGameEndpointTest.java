@@ -0,0 +1,75 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.websocket.CloseReason;
+import javax.websocket.MessageHandler;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+final class LiveGameEndpointTest {
+
+    private final GameStore games = new CompactGameStore();
+    private final Session session = mock(Session.class);
+    private final RemoteEndpoint.Basic remote = mock(RemoteEndpoint.Basic.class);
+    private final LiveGameEndpoint sut = new LiveGameEndpoint(games, new Metrics());
+
+    @BeforeEach
+    void beforeEach() {
+        when(session.getBasicRemote()).thenReturn(remote);
+    }
+
+    @DisplayName("LiveGameEndpoint.onOpen sends every cell and a move sends only the changes")
+    @Test
+    @SuppressWarnings("unchecked")
+    void onOpenSendsBoardAndMovesSendChanges() throws IOException {
+        Game game = new BitboardGame(Game.DEFAULT_WIN_TILE, 4, new SplitMixRandom(1234));
+        game.initialize();
+        UUID id = games.add(game);
+        connect(id);
+        ArgumentCaptor<MessageHandler.Whole<ByteBuffer>> handler = ArgumentCaptor.forClass(MessageHandler.Whole.class);
+        verify(session).addMessageHandler(eq(ByteBuffer.class), handler.capture());
+
+        handler.getValue().onMessage(ByteBuffer.wrap(new byte[]{
+                (byte) Direction.left.ordinal(), (byte) Direction.up.ordinal(), LiveGameEndpoint.UNDO}));
+
+        ArgumentCaptor<ByteBuffer> updates = ArgumentCaptor.forClass(ByteBuffer.class);
+        verify(remote, times(2)).sendBinary(updates.capture());
+        assertThat(updates.getAllValues().get(0).get(9)).isEqualTo((byte) 16);
+        ByteBuffer update = updates.getAllValues().get(1);
+        assertThat(update.getInt(5)).isEqualTo(games.apply(id, Game::getMoves));
+        assertThat(update.get(9)).isLessThan((byte) 16);
+    }
+
+    @DisplayName("LiveGameEndpoint.onOpen for an unknown game closes the session")
+    @Test
+    void onOpenWithUnknownGameCloses() throws IOException {
+        connect(UUID.randomUUID());
+
+        ArgumentCaptor<CloseReason> reason = ArgumentCaptor.forClass(CloseReason.class);
+        verify(session).close(reason.capture());
+        assertThat(reason.getValue().getCloseCode().getCode()).isEqualTo(4410);
+        verify(session, times(0)).addMessageHandler(eq(ByteBuffer.class), any(MessageHandler.Whole.class));
+    }
+
+    private void connect(UUID id) {
+        when(session.getRequestParameterMap()).thenReturn(Map.of("id", List.of(id.toString())));
+        sut.onOpen(session, null);
+    }
+}
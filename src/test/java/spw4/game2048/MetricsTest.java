@@ -0,0 +1,85 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class MetricsTest {
+
+    private final Metrics sut = new Metrics();
+
+    @DisplayName("Metrics.move counts every move and times a sample of them")
+    @Test
+    void moveCountsAndSamples() {
+        Game game = new GameImpl(4, Game.DEFAULT_WIN_TILE, new SplitMixRandom(1234));
+        game.initialize();
+
+        int unchanged = 0;
+        for (int i = 0; i < 100 * Metrics.SAMPLE_RATE; i++) {
+            if (game.isOver()) {
+                game = new GameImpl(4, Game.DEFAULT_WIN_TILE, new SplitMixRandom(i));
+                game.initialize();
+            }
+            if (!MoveResult.changed(sut.move(game, Direction.values()[i % 4]))) {
+                unchanged++;
+            }
+        }
+
+        assertThat(sut.getMoves()).isEqualTo(100L * Metrics.SAMPLE_RATE);
+        assertThat(sut.getUnchangedMoves()).isEqualTo(unchanged);
+        assertThat(sut.getMoveLatency().getCount()).isBetween(1L, 100L * Metrics.SAMPLE_RATE / 4);
+    }
+
+    @DisplayName("Metrics.apply returns the result of the action")
+    @Test
+    void applyReturnsResult() {
+        GameStore games = new GameRegistry();
+        Game game = new GameImpl(new SplitMixRandom(1234));
+        game.initialize();
+        UUID id = games.add(game);
+
+        int result = sut.apply(games, id, Game::getSize);
+
+        assertThat(result).isEqualTo(4);
+    }
+
+    @DisplayName("Metrics.write writes counters, the session gauge and latency summaries")
+    @Test
+    void writeFormatsMetrics() {
+        GameStore games = new CompactGameStore();
+        games.add(new BitboardGame(new SplitMixRandom(1234)));
+        sut.gameCreated();
+        sut.getRenderLatency().record(2_000);
+        StringWriter text = new StringWriter();
+
+        sut.write(new PrintWriter(text), games);
+
+        assertThat(text.toString())
+                .contains("# TYPE game2048_moves_total counter\ngame2048_moves_total 0\n")
+                .contains("game2048_games_created_total 1\n")
+                .contains("game2048_sessions 1\n")
+                .contains("game2048_render_latency_seconds{quantile=\"0.5\"} 2.0E-6\n")
+                .contains("game2048_render_latency_seconds_count 1\n");
+    }
+
+    @DisplayName("Metrics.render counts every page and times a sample of them")
+    @Test
+    void renderCountsAndSamples() throws IOException {
+        Game game = new BitboardGame(new SplitMixRandom(1234));
+        game.initialize();
+
+        for (int i = 0; i < 100 * Metrics.SAMPLE_RATE; i++) {
+            sut.render(UUID.randomUUID(), game, null, OutputStream.nullOutputStream());
+        }
+
+        assertThat(sut.getRenders()).isEqualTo(100L * Metrics.SAMPLE_RATE);
+        assertThat(sut.getRenderLatency().getCount()).isBetween(1L, 100L * Metrics.SAMPLE_RATE / 4);
+    }
+}
@@ -0,0 +1,242 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class MoveLogTest {
+
+    @TempDir
+    Path directory;
+
+    @DisplayName("MoveLog.replay rebuilds every game with the same board, score and moves")
+    @Test
+    void replayRebuildsGames() throws IOException {
+        Map<UUID, Game> expected = new HashMap<>();
+        try (MoveLog sut = new MoveLog(directory)) {
+            for (int i = 0; i < 10; i++) {
+                UUID id = UUID.randomUUID();
+                Game game = sut.track(id, i, newGame(i % 2 == 0 ? 4 : 5, i));
+                play(game, 100 + i, i);
+                expected.put(id, game);
+            }
+        }
+
+        Map<UUID, Game> result = replay(new MoveLog(directory));
+
+        assertThat(result).hasSameSizeAs(expected);
+        expected.forEach((id, game) -> assertThat(result.get(id).toString()).isEqualTo(game.toString()));
+    }
+
+    @DisplayName("MoveLog.replay skips games that were removed")
+    @Test
+    void replaySkipsRemovedGames() throws IOException {
+        UUID kept = UUID.randomUUID();
+        try (MoveLog sut = new MoveLog(directory)) {
+            Game removed = sut.track(UUID.randomUUID(), 1, newGame(4, 1));
+            play(sut.track(kept, 2, newGame(4, 2)), 10, 2);
+            play(removed, 10, 1);
+            sut.remove(removed);
+        }
+
+        Map<UUID, Game> result = replay(new MoveLog(directory));
+
+        assertThat(result).containsOnlyKeys(kept);
+    }
+
+    @DisplayName("MoveLog.track after remove reuses the ordinal, and a late move of the removed game is not logged")
+    @Test
+    void trackReusesRemovedOrdinals() throws IOException {
+        UUID reused = UUID.randomUUID();
+        Game game;
+        try (MoveLog sut = new MoveLog(directory)) {
+            LoggedGame removed = (LoggedGame) sut.track(UUID.randomUUID(), 1, newGame(4, 1));
+            sut.track(UUID.randomUUID(), 2, newGame(4, 2));
+            sut.remove(removed);
+            game = sut.track(reused, 3, newGame(4, 3));
+            play(removed, 10, 1);
+            play(game, 10, 3);
+
+            assertThat(((LoggedGame) game).getOrdinal()).isEqualTo(removed.getOrdinal());
+            assertThat(sut.getNextOrdinal()).isEqualTo(2);
+        }
+
+        Map<UUID, Game> result = replay(new MoveLog(directory));
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(reused).toString()).isEqualTo(game.toString());
+    }
+
+    @DisplayName("MoveLog.replay frees the ordinals of removed games for the next track")
+    @Test
+    void replayFreesRemovedOrdinals() throws IOException {
+        try (MoveLog sut = new MoveLog(directory)) {
+            sut.track(UUID.randomUUID(), 1, newGame(4, 1));
+            Game removed = sut.track(UUID.randomUUID(), 2, newGame(4, 2));
+            sut.track(UUID.randomUUID(), 3, newGame(4, 3));
+            sut.remove(removed);
+        }
+
+        try (MoveLog sut = new MoveLog(directory)) {
+            sut.replay((id, game) -> { });
+
+            assertThat(((LoggedGame) sut.track(UUID.randomUUID(), 4, newGame(4, 4))).getOrdinal()).isOne();
+            assertThat(((LoggedGame) sut.track(UUID.randomUUID(), 5, newGame(4, 5))).getOrdinal()).isEqualTo(3);
+        }
+    }
+
+    @DisplayName("MoveLog.replay after a restart continues the log, so games from both runs are restored")
+    @Test
+    void replayAfterRestartKeepsAppending() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        try (MoveLog sut = new MoveLog(directory)) {
+            play(sut.track(first, 1, newGame(4, 1)), 10, 1);
+        }
+        Map<UUID, Game> games = new HashMap<>();
+        Game restored;
+        try (MoveLog sut = new MoveLog(directory)) {
+            sut.replay(games::put);
+            restored = games.get(first);
+            play(restored, 10, 3);
+            play(sut.track(second, 2, newGame(3, 2)), 10, 2);
+        }
+
+        Map<UUID, Game> result = replay(new MoveLog(directory));
+
+        assertThat(result).containsOnlyKeys(first, second);
+        assertThat(result.get(first).toString()).isEqualTo(restored.toString());
+    }
+
+    @DisplayName("LoggedGame.initialize on a tracked game leaves the logged game unchanged")
+    @Test
+    void initializeOnTrackedGameKeepsState() throws IOException {
+        UUID id = UUID.randomUUID();
+        Game game;
+        String initialized;
+        try (MoveLog sut = new MoveLog(directory)) {
+            game = sut.track(id, 1, newGame(4, 1));
+            game.initialize();
+            initialized = game.toString();
+            play(game, 10, 1);
+        }
+
+        Game result = replay(new MoveLog(directory)).get(id);
+
+        assertThat(initialized).isEqualTo(newGame(4, 1).toString());
+        assertThat(result.toString()).isEqualTo(game.toString());
+    }
+
+    @DisplayName("MoveLog.replay restores the state after undo and redo")
+    @Test
+    void replayRestoresUndoneState() throws IOException {
+        UUID id = UUID.randomUUID();
+        Game game;
+        try (MoveLog sut = new MoveLog(directory)) {
+            Game created = Game.create(5, 2048, 4, new SplitMixRandom(1));
+            created.initialize();
+            game = sut.track(id, 1, created);
+            play(game, 20, 1);
+            game.undo();
+            game.undo();
+            game.redo();
+            play(game, 5, 2);
+            game.undo();
+        }
+
+        Game result = replay(new MoveLog(directory)).get(id);
+
+        assertThat(result.toString()).isEqualTo(game.toString());
+        assertThat(result.getHistoryDepth()).isEqualTo(4);
+    }
+
+    @DisplayName("MoveLog.flush when a segment is full rolls over to a new segment")
+    @Test
+    void flushRollsOverFullSegments() throws IOException {
+        UUID id = UUID.randomUUID();
+        Game game;
+        try (MoveLog sut = new MoveLog(directory, 64)) {
+            game = sut.track(id, 1, newGame(4, 1));
+            for (int i = 0; i < 5; i++) {
+                play(game, 20, i);
+                sut.flush();
+            }
+        }
+
+        assertThat(segmentCount()).isGreaterThan(1);
+        assertThat(replay(new MoveLog(directory)).get(id).toString()).isEqualTo(game.toString());
+    }
+
+    @DisplayName("MoveLog.replay ignores a record cut off at the end of a segment")
+    @Test
+    void replayIgnoresTruncatedRecord() throws IOException {
+        UUID id = UUID.randomUUID();
+        try (MoveLog sut = new MoveLog(directory)) {
+            sut.track(id, 1, newGame(4, 1));
+            sut.track(UUID.randomUUID(), 2, newGame(4, 2));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        Map<UUID, Game> result = replay(new MoveLog(directory));
+
+        assertThat(result).containsOnlyKeys(id);
+    }
+
+    @DisplayName("MoveLog.track when closed throws IllegalStateException")
+    @Test
+    void trackWhenClosedThrowsException() throws IOException {
+        MoveLog sut = new MoveLog(directory);
+        sut.close();
+
+        assertThrows(IllegalStateException.class,
+                () -> sut.track(UUID.randomUUID(), 1, newGame(4, 1)));
+    }
+
+    private static Game newGame(int size, long seed) {
+        Game game = Game.create(size, 2048, new SplitMixRandom(seed));
+        game.initialize();
+        return game;
+    }
+
+    private static void play(Game game, int moves, long seed) {
+        SplitMixRandom random = new SplitMixRandom(seed);
+        List<Direction> directions = List.of(Direction.values());
+        for (int i = 0; i < moves && !game.isOver(); i++) {
+            game.move(directions.get(random.nextInt(4)));
+        }
+    }
+
+    private static Map<UUID, Game> replay(MoveLog log) throws IOException {
+        Map<UUID, Game> games = new HashMap<>();
+        try (log) {
+            log.replay(games::put);
+        }
+        return games;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class MoveTableTest {
+
+    private static final int[] LEFT = MoveTable.of(Direction.left);
+    private static final int[] RIGHT = MoveTable.of(Direction.right);
+
+    @DisplayName("MoveTable.of for a row of four equal tiles merges them pairwise")
+    @Test
+    void ofMergesPairs() {
+        int entry = LEFT[row(1, 1, 1, 1)];
+
+        assertThat(MoveTable.row(entry)).isEqualTo(row(2, 2, 0, 0));
+        assertThat(MoveTable.score(entry)).isEqualTo(8);
+        assertThat(MoveTable.changed(entry)).isTrue();
+    }
+
+    @DisplayName("MoveTable.score for the highest mergeable row returns the full score")
+    @Test
+    void scoreOfHighestRow() {
+        int entry = RIGHT[row(14, 14, 14, 14)];
+
+        assertThat(MoveTable.row(entry)).isEqualTo(row(0, 0, 15, 15));
+        assertThat(MoveTable.score(entry)).isEqualTo(2 << 15);
+    }
+
+    @DisplayName("MoveTable.changed for a packed row returns false and the row stays")
+    @Test
+    void changedForPackedRow() {
+        int entry = LEFT[row(3, 2, 3, 0)];
+
+        assertThat(MoveTable.changed(entry)).isFalse();
+        assertThat(MoveTable.row(entry)).isEqualTo(row(3, 2, 3, 0));
+        assertThat(MoveTable.score(entry)).isZero();
+    }
+
+    @DisplayName("MoveTable.of does not merge the highest exponent")
+    @Test
+    void ofKeepsHighestExponent() {
+        assertThat(MoveTable.changed(LEFT[row(15, 15, 0, 0)])).isFalse();
+    }
+
+    @DisplayName("MoveTable.of for right mirrors left for every row")
+    @Test
+    void rightMirrorsLeft() {
+        for (int row = 0; row < MoveTable.ROWS; row++) {
+            int left = LEFT[row];
+            int right = RIGHT[reverse(row)];
+
+            assertThat(MoveTable.row(right)).isEqualTo(reverse(MoveTable.row(left)));
+            assertThat(MoveTable.score(right)).isEqualTo(MoveTable.score(left));
+            assertThat(MoveTable.changed(left)).isEqualTo(MoveTable.row(left) != row);
+        }
+    }
+
+    private static int row(int first, int second, int third, int fourth) {
+        return first | second << 4 | third << 8 | fourth << 12;
+    }
+
+    private static int reverse(int row) {
+        return row(row >>> 12 & 0xF, row >>> 8 & 0xF, row >>> 4 & 0xF, row & 0xF);
+    }
+}
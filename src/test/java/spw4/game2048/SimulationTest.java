@@ -0,0 +1,49 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class SimulationTest {
+
+    @DisplayName("Simulation.run plays every game and aggregates its results")
+    @Test
+    void runPlaysEveryGame() throws InterruptedException {
+        SimulationResult result = new Simulation(200, 1234, 4, Simulation.strategy("random", 1)).run();
+
+        assertThat(result.getGames()).isEqualTo(200);
+        assertThat(result.getTotalMoves()).isPositive();
+        assertThat(result.getMinScore()).isLessThanOrEqualTo(result.getMaxScore());
+    }
+
+    @DisplayName("Simulation.run with the same seed is reproducible across thread counts")
+    @Test
+    void runIsReproducibleAcrossThreadCounts() throws InterruptedException {
+        SimulationResult single = new Simulation(200, 42, 1, Simulation.strategy("random", 1)).run();
+        SimulationResult parallel = new Simulation(200, 42, 8, Simulation.strategy("random", 1)).run();
+
+        assertThat(parallel.getTotalScore()).isEqualTo(single.getTotalScore());
+        assertThat(parallel.getTotalMoves()).isEqualTo(single.getTotalMoves());
+        assertThat(parallel.getMaxTileCount(128)).isEqualTo(single.getMaxTileCount(128));
+    }
+
+    @DisplayName("Simulation.run with the solver strategy is reproducible across thread counts")
+    @Test
+    void runWithSolverIsReproducibleAcrossThreadCounts() throws InterruptedException {
+        SimulationResult single = new Simulation(4, 42, 1, Simulation.strategy("solver", 2)).run();
+        SimulationResult parallel = new Simulation(4, 42, 4, Simulation.strategy("solver", 2)).run();
+
+        assertThat(parallel.getTotalScore()).isEqualTo(single.getTotalScore());
+        assertThat(parallel.getTotalMoves()).isEqualTo(single.getTotalMoves());
+    }
+
+    @DisplayName("Simulation.run with greedy strategy scores better than random play")
+    @Test
+    void runWithGreedyStrategyBeatsRandom() throws InterruptedException {
+        SimulationResult random = new Simulation(200, 7, 4, Simulation.strategy("random", 1)).run();
+        SimulationResult greedy = new Simulation(200, 7, 4, Simulation.strategy("greedy", 1)).run();
+
+        assertThat(greedy.getTotalScore()).isGreaterThan(random.getTotalScore());
+    }
+}
@@ -0,0 +1,169 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class SnapshotterTest {
+
+    @TempDir
+    Path directory;
+
+    private final GameRegistry games = new GameRegistry(1000, Duration.ofHours(1), Duration.ofHours(1));
+
+    @DisplayName("Snapshotter.snapshot then replay restores games from the snapshot plus the moves after it")
+    @Test
+    void replayAfterSnapshotRestoresLatestState() throws IOException {
+        try (MoveLog log = new MoveLog(directory, 256)) {
+            for (int i = 0; i < 20; i++) {
+                Game game = track(log, i % 3 == 0 ? 5 : 4, i);
+                play(game, 50, i);
+            }
+            assertThat(new Snapshotter(log, games).snapshot()).isEqualTo(20);
+            games.forEach((id, game) -> play(game, 30, id.getLeastSignificantBits()));
+        }
+
+        Map<UUID, Game> result = replay();
+
+        assertThat(result).hasSize(20);
+        games.forEach((id, game) -> assertThat(result.get(id).toString()).isEqualTo(game.toString()));
+    }
+
+    @DisplayName("Snapshotter.snapshot deletes the segments the snapshot covers")
+    @Test
+    void snapshotDeletesCoveredSegments() throws IOException {
+        try (MoveLog log = new MoveLog(directory, 64)) {
+            Game game = track(log, 4, 1);
+            for (int i = 0; i < 5; i++) {
+                play(game, 20, i);
+                log.flush();
+            }
+
+            new Snapshotter(log, games).snapshot();
+        }
+
+        assertThat(files("moves-")).isZero();
+        assertThat(files("snapshot-")).isOne();
+    }
+
+    @DisplayName("Snapshotter.snapshot then replay restores games created and skips games removed after it")
+    @Test
+    void replayAfterSnapshotAppliesCreatesAndRemoves() throws IOException {
+        UUID removed = UUID.randomUUID();
+        UUID created = UUID.randomUUID();
+        try (MoveLog log = new MoveLog(directory)) {
+            Game game = log.track(removed, 1, newGame(4, 1), games::add);
+            new Snapshotter(log, games).snapshot();
+
+            log.remove(game);
+            Game later = log.track(created, 2, newGame(3, 2), games::add);
+            play(later, 10, 2);
+        }
+
+        Map<UUID, Game> result = replay();
+
+        assertThat(result).containsKey(created).doesNotContainKey(removed);
+        assertThat(result.get(created).toString()).isEqualTo(games.apply(created, Game::toString));
+    }
+
+    @DisplayName("Snapshotter.snapshot started while a game is tracked but not yet registered still restores it")
+    @Test
+    void snapshotDuringTrackKeepsGame() throws Exception {
+        UUID id = UUID.randomUUID();
+        Game game;
+        try (MoveLog log = new MoveLog(directory)) {
+            track(log, 4, 1);
+            Snapshotter snapshotter = new Snapshotter(log, games);
+            Thread snapshot = new Thread(() -> {
+                try {
+                    snapshotter.snapshot();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            game = log.track(id, 2, newGame(4, 2), (trackedId, tracked) -> {
+                snapshot.start();
+                // the snapshot has to wait for the registration before it rolls the log over
+                long deadline = System.nanoTime() + 200_000_000;
+                while (snapshot.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                games.add(trackedId, tracked);
+            });
+            snapshot.join();
+            play(game, 20, 2);
+        }
+
+        Map<UUID, Game> result = replay();
+
+        assertThat(files("snapshot-")).isOne();
+        assertThat(result).hasSize(2);
+        assertThat(result.get(id).toString()).isEqualTo(game.toString());
+    }
+
+    @DisplayName("MoveLog after a snapshot without further moves keeps numbering segments after the snapshot")
+    @Test
+    void restartAfterSnapshotKeepsSegmentNumbers() throws IOException {
+        UUID id = UUID.randomUUID();
+        try (MoveLog log = new MoveLog(directory)) {
+            track(log, 4, 1);
+            new Snapshotter(log, games).snapshot();
+        }
+        Game expected;
+        try (MoveLog log = new MoveLog(directory)) {
+            log.replay((restoredId, game) -> { });
+            expected = log.track(id, 2, newGame(4, 2));
+            play(expected, 10, 2);
+        }
+
+        Map<UUID, Game> result = replay();
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(id).toString()).isEqualTo(expected.toString());
+    }
+
+    private Game track(MoveLog log, int size, long seed) {
+        UUID id = UUID.randomUUID();
+        return log.track(id, seed, newGame(size, seed), games::add);
+    }
+
+    private static Game newGame(int size, long seed) {
+        Game game = Game.create(size, 2048, new SplitMixRandom(seed));
+        game.initialize();
+        return game;
+    }
+
+    private static void play(Game game, int moves, long seed) {
+        SplitMixRandom random = new SplitMixRandom(seed);
+        for (int i = 0; i < moves && !game.isOver(); i++) {
+            game.move(Direction.values()[random.nextInt(4)]);
+        }
+    }
+
+    private Map<UUID, Game> replay() throws IOException {
+        Map<UUID, Game> restored = new HashMap<>();
+        try (MoveLog log = new MoveLog(directory)) {
+            log.replay(restored::put);
+        }
+        return restored;
+    }
+
+    private long files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+}
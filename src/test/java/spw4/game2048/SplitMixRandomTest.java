@@ -0,0 +1,59 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class SplitMixRandomTest {
+
+    @DisplayName("SplitMixRandom.nextInt with the same seed returns the same sequence")
+    @Test
+    void nextIntWithSameSeedIsReproducible() {
+        SplitMixRandom first = new SplitMixRandom(1234);
+        SplitMixRandom second = new SplitMixRandom(1234);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(second.nextInt(160)).isEqualTo(first.nextInt(160));
+        }
+    }
+
+    @DisplayName("SplitMixRandom.nextInt stays within its bound and hits every value")
+    @ParameterizedTest(name = "bound {0}")
+    @ValueSource(ints = {1, 4, 10, 160})
+    void nextIntStaysWithinBound(int bound) {
+        SplitMixRandom sut = new SplitMixRandom(42);
+        boolean[] seen = new boolean[bound];
+
+        for (int i = 0; i < bound * 100; i++) {
+            int value = sut.nextInt(bound);
+            assertThat(value).isBetween(0, bound - 1);
+            seen[value] = true;
+        }
+
+        assertThat(seen).doesNotContain(false);
+    }
+
+    @DisplayName("SplitMixRandom.setState restores the sequence from a saved state")
+    @Test
+    void setStateRestoresSequence() {
+        SplitMixRandom sut = new SplitMixRandom(7);
+        sut.nextInt(10);
+        long state = sut.getState();
+        int expected = sut.nextInt(1000);
+
+        sut.setState(state);
+
+        assertThat(sut.nextInt(1000)).isEqualTo(expected);
+    }
+
+    @DisplayName("SplitMixRandom.nextInt when bound is not positive throws IllegalArgumentException")
+    @Test
+    void nextIntWithInvalidBoundThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SplitMixRandom(1).nextInt(0));
+    }
+}
@@ -0,0 +1,204 @@
+package spw4.game2048;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+final class TablebaseTest {
+
+    private static final int WIN_TILE = 16;
+    // an entry is rounded once to 1/16383, the float values it was solved from add far less
+    private static final double TOLERANCE = 0.5 / Tablebase.MAX_VALUE + 1e-6;
+
+    @TempDir
+    static Path directory;
+
+    private static Path file;
+    private static Tablebase sut;
+
+    private final Map<String, double[]> reference = new HashMap<>();
+
+    @BeforeAll
+    static void beforeAll() throws IOException {
+        file = directory.resolve("tablebase.bin");
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertThat(new TablebaseGenerator(3, WIN_TILE, pool).generate(file)).isEqualTo(9 * 8 / 2);
+        } finally {
+            pool.shutdown();
+        }
+        sut = Tablebase.open(file);
+    }
+
+    @DisplayName("Tablebase.winChance for every position reachable from a start returns the exact expectimax value")
+    @Test
+    void winChanceMatchesExpectimax() {
+        reference(new int[][]{{2, 0, 0}, {0, 2, 0}, {0, 0, 0}}, WIN_TILE);
+
+        assertThat(reference).hasSizeGreaterThan(1000);
+        assertMatchesReference(sut, WIN_TILE);
+    }
+
+    @DisplayName("Tablebase.winChance over many tile sums is still rounded only once")
+    @Test
+    void winChanceOverManyLevelsMatchesExpectimax() throws IOException {
+        Path small = directory.resolve("small.bin");
+        // rounding the values every level drifted almost three steps away from expectimax here
+        assertThat(new TablebaseGenerator(2, 32, ForkJoinPool.commonPool()).generate(small)).isEqualTo(32);
+        reference(new int[][]{{2, 0}, {0, 2}}, 32);
+
+        assertThat(reference).hasSizeGreaterThan(300);
+        assertMatchesReference(Tablebase.open(small), 32);
+    }
+
+    @DisplayName("Tablebase.best for a merge to the win tile returns that move")
+    @Test
+    void bestMergesToWinTile() {
+        Game game = game(new int[][]{{8, 2, 4}, {8, 4, 2}, {2, 8, 4}});
+
+        assertThat(sut.best(game)).isEqualTo(Direction.left);
+        assertThat(sut.winChance(game)).isEqualTo(1);
+    }
+
+    @DisplayName("Tablebase.best for games it does not cover returns null")
+    @Test
+    void bestForUncoveredGames() {
+        Game won = game(new int[][]{{16, 0, 0}, {2, 0, 0}, {0, 0, 0}});
+        Game over = game(new int[][]{{2, 4, 2}, {4, 2, 4}, {2, 4, 2}});
+
+        assertThat(sut.best(won)).isNull();
+        assertThat(sut.winChance(won)).isEqualTo(1);
+        assertThat(sut.best(over)).isNull();
+        assertThat(sut.best(new GameImpl(3, 32, new SplitMixRandom(1)))).isNull();
+        assertThat(sut.best(new GameImpl(4, WIN_TILE, new SplitMixRandom(1)))).isNull();
+        assertThat(sut.winChance(new GameImpl(4, WIN_TILE, new SplitMixRandom(1)))).isEqualTo(-1);
+    }
+
+    @DisplayName("TablebaseGenerator.generate for an interrupted file solves only the pending tile sums")
+    @Test
+    void generateResumes() throws IOException {
+        Path resumed = directory.resolve("resumed.bin");
+        int pending = 20;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        new TablebaseGenerator(3, WIN_TILE, pool).generate(resumed, pending);
+        assertThat(Files.exists(TablebaseGenerator.valuesFile(resumed))).isTrue();
+        assertThatThrownBy(() -> Tablebase.open(resumed)).isInstanceOf(IOException.class);
+
+        int solved = new TablebaseGenerator(3, WIN_TILE, pool).generate(resumed);
+
+        assertThat(solved).isEqualTo(pending / 2);
+        assertThat(Files.mismatch(file, resumed)).isEqualTo(-1);
+        assertThat(Files.exists(TablebaseGenerator.valuesFile(resumed))).isFalse();
+        assertThat(new TablebaseGenerator(3, WIN_TILE, pool).generate(resumed)).isZero();
+    }
+
+    @DisplayName("TablebaseGenerator.generate for a file of another tablebase throws an IOException")
+    @Test
+    void generateRejectsOtherTablebase() throws IOException {
+        assertThatThrownBy(() -> new TablebaseGenerator(3, 32, ForkJoinPool.commonPool()).generate(file))
+                .isInstanceOf(IOException.class);
+        assertThat(Files.size(file)).isEqualTo(Tablebase.bytes(3, WIN_TILE));
+        assertThatThrownBy(() -> new TablebaseGenerator(5, WIN_TILE, ForkJoinPool.commonPool()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TablebaseGenerator(4, 1024, ForkJoinPool.commonPool()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertMatchesReference(Tablebase tablebase, int winTile) {
+        reference.forEach((key, values) -> {
+            Game game = game(parse(key), winTile);
+            double best = Arrays.stream(values).max().orElseThrow();
+            assertThat(tablebase.winChance(game)).isCloseTo(best, within(TOLERANCE));
+            if (best >= 0) {
+                assertThat(values[tablebase.best(game).ordinal()]).isCloseTo(best, within(2 * TOLERANCE));
+            }
+        });
+    }
+
+    // the chance of reaching the win tile after each direction, -1 where the board does not change,
+    // computed on GameImpl by placing every possible new tile through the random source
+    private double[] reference(int[][] board, int winTile) {
+        String key = Arrays.deepToString(board);
+        double[] values = reference.get(key);
+        if (values != null) {
+            return values;
+        }
+
+        values = new double[Direction.values().length];
+        for (Direction direction : Direction.values()) {
+            GameImpl probe = game(board, winTile);
+            if (!MoveResult.changed(probe.move(direction))) {
+                values[direction.ordinal()] = -1;
+                continue;
+            }
+            if (probe.isWon()) {
+                values[direction.ordinal()] = 1;
+                continue;
+            }
+
+            int empty = 1;
+            for (int x = 0; x < board.length; x++) {
+                for (int y = 0; y < board.length; y++) {
+                    empty += probe.getValueAt(x, y) == 0 ? 1 : 0;
+                }
+            }
+            double total = 0;
+            for (int cell = 0; cell < empty; cell++) {
+                total += 0.9 * chance(board, winTile, direction, cell * 10)
+                        + 0.1 * chance(board, winTile, direction, cell * 10 + 9);
+            }
+            values[direction.ordinal()] = total / empty;
+        }
+        reference.put(key, values);
+        return values;
+    }
+
+    private double chance(int[][] board, int winTile, Direction direction, int draw) {
+        GameImpl game = new GameImpl(copy(board), winTile, 0, 0, 0, new IntRandomStub(List.of(draw)));
+        game.move(direction);
+        int[][] next = new int[board.length][board.length];
+        for (int x = 0; x < board.length; x++) {
+            for (int y = 0; y < board.length; y++) {
+                next[x][y] = game.getValueAt(x, y);
+            }
+        }
+        return Math.max(0, Arrays.stream(reference(next, winTile)).max().orElseThrow());
+    }
+
+    private static GameImpl game(int[][] board) {
+        return game(board, WIN_TILE);
+    }
+
+    private static GameImpl game(int[][] board, int winTile) {
+        return new GameImpl(copy(board), winTile, 0, 0, 0, new SplitMixRandom(1));
+    }
+
+    private static int[][] copy(int[][] board) {
+        return Arrays.stream(board).map(int[]::clone).toArray(int[][]::new);
+    }
+
+    private static int[][] parse(String key) {
+        String[] values = key.replaceAll("[\\[\\]]", "").split(", ");
+        int size = (int) Math.sqrt(values.length);
+        int[][] board = new int[size][size];
+        for (int i = 0; i < values.length; i++) {
+            board[i / size][i % size] = Integer.parseInt(values[i]);
+        }
+        return board;
+    }
+
+}